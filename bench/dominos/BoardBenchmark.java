@@ -0,0 +1,152 @@
+package dominos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Engine hot paths that leave the board as it is, on boards from seeded games (see Fixtures).
+// Every invocation works on the next of the fixture boards, so branch and cache behaviour is
+// that of many positions rather than one. Each phase and board runs in forks of its own, so the
+// dense and the sparse map never share a profile. BoardMutationBenchmark has the paths that
+// change the board.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @State(Scope.Thread)
+    public static class Boards {
+        @Param({"mid", "late", "long"})
+        public String phase;
+
+        @Param({"dense", "sparse"})
+        public String board;
+
+        Fixtures fixtures;
+        Domino copy;
+        final MoveBuffer moves = new MoveBuffer();
+        final GreedyStrategy bot = new GreedyStrategy();
+        final boolean[] bots = {false, true, true, true};
+        private int next;
+
+        @Setup(Level.Trial)
+        public void build() {
+            fixtures = Fixtures.build(phase, board, false);
+            copy = fixtures.scratch()[0];
+        }
+
+        int next() {
+            int i = next;
+            next = (i + 1) & (Fixtures.COUNT - 1);
+            return i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Deals {
+        @Param({"dense", "sparse"})
+        public String board;
+
+        Supplier<DominoMap> maps;
+        long seed;
+
+        @Setup(Level.Trial)
+        public void build() {
+            maps = Fixtures.maps(board);
+        }
+    }
+
+    // Deals a new game and plays the starting double, which every game pays once
+    @Benchmark
+    public int startGame(Deals deals) {
+        Domino game = new Domino(Fixtures.PLAYERS, GameConfig.DOUBLE_SIX, new SplittableRandom(deals.seed++),
+                deals.maps.get());
+        game.generateDieSet();
+        game.makeHands();
+        return game.startMap();
+    }
+
+    // Reads every cell of the board
+    @Benchmark
+    public long get(Boards boards) {
+        DominoMap map = boards.fixtures.games[boards.next()].getMap();
+        long sum = 0;
+        for (int y = 0; y < map.getWidth(); y++)
+            for (int x = 0; x < map.getLength(); x++)
+                sum += map.get(x, y);
+        return sum;
+    }
+
+    @Benchmark
+    public long isAttachedToEdge(Boards boards) {
+        Domino game = boards.fixtures.games[boards.next()];
+        DominoMap map = game.getMap();
+        long sum = 0;
+        for (int y = 0; y < map.getWidth(); y++)
+            for (int x = 0; x < map.getLength(); x++)
+                sum += game.isAttachedToEdge(x, y);
+        return sum;
+    }
+
+    @Benchmark
+    public long isPossibleToPlace(Boards boards) {
+        Domino game = boards.fixtures.games[boards.next()];
+        DominoMap map = game.getMap();
+        long sum = 0;
+        for (int y = 1; y < map.getWidth() - 1; y++)
+            for (int x = 1; x < map.getLength() - 1; x++)
+                sum += game.isPossibleToPlace(3, x, y);
+        return sum;
+    }
+
+    // Only the scratch game is written
+    @Benchmark
+    public int copyFrom(Boards boards) {
+        boards.copy.copyFrom(boards.fixtures.games[boards.next()]);
+        return boards.copy.getPoolSize();
+    }
+
+    // What the GUI autosave encodes after every move, before the file write
+    @Benchmark
+    public ByteBuffer snapshotEncode(Boards boards) {
+        int i = boards.next();
+        return new GameSnapshot(boards.fixtures.games[i], boards.fixtures.players[i], boards.bots).encode();
+    }
+
+    @Benchmark
+    public boolean fishHappens(Boards boards) {
+        return boards.fixtures.games[boards.next()].fishHappens();
+    }
+
+    @Benchmark
+    public int generateMoves(Boards boards) {
+        int i = boards.next();
+        return boards.fixtures.games[i].generateMoves(boards.fixtures.players[i], boards.moves);
+    }
+
+    @Benchmark
+    public int botMoveSearch(Boards boards) {
+        int i = boards.next();
+        Domino game = boards.fixtures.games[i];
+        int player = boards.fixtures.players[i];
+        if (game.generateMoves(player, boards.moves) == 0)
+            return -1;
+        return boards.bot.chooseMove(game, player, boards.moves);
+    }
+}
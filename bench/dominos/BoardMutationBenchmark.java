@@ -0,0 +1,97 @@
+package dominos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Engine paths that change the board. An invocation touches each fixture board exactly once and
+// every invocation starts from fresh copies of the fixtures, so no call sees a board an earlier
+// call or benchmark has changed. Scores are per call. The copies are taken outside the timed
+// region, but the GC profiler counts them too; the restore benchmark shows their share.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Fixtures.COUNT)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardMutationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Boards {
+        @Param({"mid", "late", "long"})
+        public String phase;
+
+        @Param({"dense", "sparse"})
+        public String board;
+
+        Fixtures fixtures;
+        Domino[] games;
+
+        @Setup(Level.Trial)
+        public void build() {
+            fixtures = Fixtures.build(phase, board, true);
+            games = fixtures.scratch();
+        }
+
+        @Setup(Level.Invocation)
+        public void restore() {
+            for (int i = 0; i < Fixtures.COUNT; i++)
+                games[i].copyFrom(fixtures.games[i]);
+        }
+    }
+
+    // Nothing but the restore, whose allocation is part of the figures of the other benchmarks
+    @Benchmark
+    public long restore(Boards boards) {
+        return boards.games[Fixtures.COUNT - 1].getPoolSize();
+    }
+
+    // Writes every cell of every board back with its own value
+    @Benchmark
+    public long set(Boards boards) {
+        long sum = 0;
+        for (Domino game : boards.games) {
+            DominoMap map = game.getMap();
+            for (int y = 0; y < map.getWidth(); y++)
+                for (int x = 0; x < map.getLength(); x++)
+                    map.set(map.get(x, y), x, y);
+            sum += map.getLength();
+        }
+        return sum;
+    }
+
+    // On boards the last move has already grown, as after every placement
+    @Benchmark
+    public long extendMap(Boards boards) {
+        long sum = 0;
+        for (Domino game : boards.games)
+            sum += game.getMap().extendMap()[0];
+        return sum;
+    }
+
+    // The move the greedy bot picks next on each board, including the growth of the map it may need
+    @Benchmark
+    public long placeDie(Boards boards) {
+        long sum = 0;
+        for (int i = 0; i < Fixtures.COUNT; i++) {
+            Domino game = boards.games[i];
+            int[] move = boards.fixtures.moves[i];
+            game.placeDie(game.getPlayerHand(boards.fixtures.players[i]).get(move[0]),
+                    move[1], move[2], move[3], move[4]);
+            sum += game.getEdgePoint1()[0];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,69 @@
+package dominos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lookups in a memory-mapped deal equity table. The table is written with random entries, which
+// costs the same to read as a built one and takes no simulation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DealEquityBenchmark {
+
+    @State(Scope.Thread)
+    public static class Table {
+        Path file;
+        DealEquityTable table;
+        // random hands, looked up in turn
+        final long[] hands = new long[Fixtures.COUNT];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void build() throws IOException {
+            SplittableRandom random = new SplittableRandom(1);
+            short[] entries = new short[DealEquityTable.HANDS];
+            for (int i = 0; i < entries.length; i++)
+                entries[i] = (short) random.nextInt(1 << 16);
+            file = Files.createTempFile("deal-equity", ".bin");
+            DealEquityBuilder.write(file, new int[]{Fixtures.PLAYERS}, new short[][]{entries}, 0, 1);
+            table = DealEquityTable.open(file);
+            for (int i = 0; i < hands.length; i++)
+                hands[i] = DealEquityTable.unrank(random.nextInt(DealEquityTable.HANDS));
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        long next() {
+            int i = next;
+            next = (i + 1) & (Fixtures.COUNT - 1);
+            return hands[i];
+        }
+    }
+
+    // Rank of the hand plus one u16 read from the mapping
+    @Benchmark
+    public double equity(Table table) {
+        return table.table.equity(Fixtures.PLAYERS, table.next());
+    }
+}
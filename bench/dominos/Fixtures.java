@@ -0,0 +1,103 @@
+package dominos;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+// Boards for the benchmarks, taken from seeded four player games of greedy bots after a number
+// of turns. The same seeds give the same boards in every fork and for both representations.
+final class Fixtures {
+
+    static final int PLAYERS = 4;
+    static final int COUNT = 4096;
+    static final GameConfig LONG_GAME = new GameConfig(12, 13);
+
+    final Domino[] games = new Domino[COUNT];
+    // seat to move next
+    final int[] players = new int[COUNT];
+    // {dieIndex, headX, headY, paddingX, paddingY} the greedy bot plays next, null if it cannot place
+    final int[][] moves = new int[COUNT][];
+    final GameConfig config;
+    final Supplier<DominoMap> maps;
+
+    private Fixtures(GameConfig config, Supplier<DominoMap> maps) {
+        this.config = config;
+        this.maps = maps;
+    }
+
+    // phase "mid", "late" or "long" (double-twelve, where the chain snakes further)
+    static GameConfig config(String phase) {
+        return phase.equals("long") ? LONG_GAME : GameConfig.DOUBLE_SIX;
+    }
+
+    static int turns(String phase) {
+        return switch (phase) {
+            case "mid" -> 8;
+            case "late" -> 18;
+            case "long" -> 40;
+            default -> throw new IllegalArgumentException("unknown phase " + phase);
+        };
+    }
+
+    static Supplier<DominoMap> maps(String board) {
+        return switch (board) {
+            case "dense" -> DenseDominoMap::new;
+            case "sparse" -> SparseDominoMap::new;
+            default -> throw new IllegalArgumentException("unknown board " + board);
+        };
+    }
+
+    // Games that end before the given number of turns are replaced by later seeds, as are games
+    // where the next seat cannot place when withMove is set
+    static Fixtures build(String phase, String board, boolean withMove) {
+        Fixtures fixtures = new Fixtures(config(phase), maps(board));
+        int turns = turns(phase);
+        PlayerStrategy[] seats = new PlayerStrategy[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++)
+            seats[i] = new GreedyStrategy();
+        GameEngine engine = new GameEngine(fixtures.config, seats);
+        GreedyStrategy bot = new GreedyStrategy();
+        MoveBuffer buffer = new MoveBuffer();
+
+        for (long seed = 0, n = 0; n < COUNT; seed++) {
+            Domino game = fixtures.newGame(seed);
+            int player = game.startMap();
+            int t = 0;
+            while (t < turns && !game.handIsEmpty() && !game.fishHappens()) {
+                player = (player + 1) % PLAYERS;
+                engine.playTurn(game, player);
+                t++;
+            }
+            if (t < turns || game.handIsEmpty() || game.fishHappens())
+                continue;
+            player = (player + 1) % PLAYERS;
+            int[] move = null;
+            if (game.generateMoves(player, buffer) > 0) {
+                int i = bot.chooseMove(game, player, buffer);
+                move = new int[]{buffer.getDieIndex(i), buffer.getHeadX(i), buffer.getHeadY(i),
+                        buffer.getPaddingX(i), buffer.getPaddingY(i)};
+            } else if (withMove) {
+                continue;
+            }
+            fixtures.games[(int) n] = game;
+            fixtures.players[(int) n] = player;
+            fixtures.moves[(int) n] = move;
+            n++;
+        }
+        return fixtures;
+    }
+
+    private Domino newGame(long seed) {
+        Domino game = new Domino(PLAYERS, config, new SplittableRandom(seed), maps.get());
+        game.generateDieSet();
+        game.makeHands();
+        return game;
+    }
+
+    // Empty games of the same representation, to copy the fixtures into
+    Domino[] scratch() {
+        Domino[] copies = new Domino[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            copies[i] = new Domino(PLAYERS, config, new SplittableRandom(i), maps.get());
+        return copies;
+    }
+}
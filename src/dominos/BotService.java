@@ -0,0 +1,125 @@
+package dominos;
+
+import javafx.application.Platform;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Works out bot turns on a background thread so the JavaFX thread never runs a search.
+// The bot sees a private copy of the game taken when the turn is requested; the decision is
+// handed back on the JavaFX thread, where the caller applies it to the real game.
+// All public methods are meant to be called from the JavaFX thread.
+public class BotService {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "domino-bot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SplittableRandom random = new SplittableRandom();
+    private final MoveBuffer moves = new MoveBuffer();
+
+    // bumped on cancel; decisions for an older generation are dropped
+    private long generation;
+    private Future<?> pending;
+
+    // A strategy that throws is a bug: the exception is handed to onError instead of a turn,
+    // and the caller is expected to stop the bot rather than carry on with a made up move
+    public void requestTurn(Domino game, int player, PlayerStrategy strategy, Consumer<BotTurn> onTurn,
+                            Consumer<RuntimeException> onError) {
+        long requested = generation;
+        Domino view = new Domino(game.getPlayersAmount(), game.getConfig(), random.split());
+        view.copyFrom(game);
+
+        pending = executor.submit(() -> {
+            long start = System.nanoTime();
+            BotTurn turn;
+            try {
+                turn = decide(view, player, strategy);
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    if (requested == generation)
+                        onError.accept(e);
+                });
+                return;
+            }
+            turn.thinkNanos = System.nanoTime() - start;
+            Platform.runLater(() -> {
+                if (requested == generation)
+                    onTurn.accept(turn);
+            });
+        });
+    }
+
+    // Drops the pending decision, e.g. when the game is restarted
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private BotTurn decide(Domino view, int player, PlayerStrategy strategy) {
+        if (view.generateMoves(player, moves) == 0)
+            return view.getPoolSize() > 0 ? BotTurn.draw() : BotTurn.pass();
+        DominoEvents.BotDecision event = new DominoEvents.BotDecision();
+        event.begin();
+        int i = strategy.chooseMove(view, player, moves);
+        if (event.shouldCommit()) {
+            event.strategy = strategy.getClass().getSimpleName();
+            event.player = player;
+            event.candidates = moves.size();
+            event.commit();
+        }
+        return BotTurn.place(moves.getDieIndex(i), moves.getHeadX(i), moves.getHeadY(i),
+                moves.getPaddingX(i), moves.getPaddingY(i));
+    }
+
+    public static class BotTurn {
+        public enum Kind { DRAW, PASS, PLACE }
+
+        private final Kind kind;
+        private final int[] move;
+        private long thinkNanos;
+
+        private BotTurn(Kind kind, int[] move) {
+            this.kind = kind;
+            this.move = move;
+        }
+
+        static BotTurn draw() {
+            return new BotTurn(Kind.DRAW, null);
+        }
+
+        static BotTurn pass() {
+            return new BotTurn(Kind.PASS, null);
+        }
+
+        static BotTurn place(int dieIndex, int headX, int headY, int paddingX, int paddingY) {
+            return new BotTurn(Kind.PLACE, new int[]{dieIndex, headX, headY, paddingX, paddingY});
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        // Time the decision took on the bot thread
+        public long getThinkNanos() {
+            return thinkNanos;
+        }
+
+        // {dieIndex, headX, headY, paddingX, paddingY} for Domino.makeMove
+        public int[] getMove() {
+            return move;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dominos;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.function.BiConsumer;
+
+// Board drawn on a single canvas. Only the cells inside the visible area are drawn, so the
+// cost of a frame does not depend on how large the map has grown. Dragging pans the view,
+// a click without dragging is reported as a map cell.
+public final class CanvasBoard extends Pane {
+
+    private static final double DRAG_THRESHOLD = 4;
+
+    private final Canvas canvas = new Canvas();
+    private final BiConsumer<Integer, Integer> onCellClick;
+
+    private Domino game;
+    private int[] firstClick;
+    private double cellSize = 40;
+    private Font font;
+    private double fontSize = -1;
+
+    // pan offset in pixels, the view is centred on the starting die when it is zero
+    private double panX;
+    private double panY;
+    private double pressX;
+    private double pressY;
+    private double pressPanX;
+    private double pressPanY;
+    private boolean dragged;
+
+    // screen position of map cell (0, 0) in the last frame
+    private double originX;
+    private double originY;
+
+    public CanvasBoard(BiConsumer<Integer, Integer> onCellClick) {
+        this.onCellClick = onCellClick;
+
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener(o -> redraw());
+        canvas.heightProperty().addListener(o -> redraw());
+        getChildren().add(canvas);
+
+        setOnMousePressed(this::mousePressed);
+        setOnMouseDragged(this::mouseDragged);
+        setOnMouseReleased(this::mouseReleased);
+    }
+
+    public void draw(Domino game, int[] firstClick, double cellSize) {
+        this.game = game;
+        this.firstClick = firstClick;
+        this.cellSize = cellSize;
+        redraw();
+    }
+
+    public void resetPan() {
+        panX = 0;
+        panY = 0;
+        redraw();
+    }
+
+    private void redraw() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if (game == null)
+            return;
+
+        DominoMap map = game.getMap();
+        // the starting die is at (2, 2)-(2, 3) before any padding
+        originX = width / 2 + panX - (map.getShiftX() + 2.5) * cellSize;
+        originY = height / 2 + panY - (map.getShiftY() + 3) * cellSize;
+
+        int fromX = Math.max(0, (int) Math.floor(-originX / cellSize));
+        int fromY = Math.max(0, (int) Math.floor(-originY / cellSize));
+        int toX = Math.min(map.getLength() - 1, (int) Math.floor((width - originX) / cellSize));
+        int toY = Math.min(map.getWidth() - 1, (int) Math.floor((height - originY) / cellSize));
+
+        if (cellSize != fontSize) {
+            font = Font.font("Arial", cellSize * 0.3);
+            fontSize = cellSize;
+        }
+        gc.setFont(font);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setLineWidth(1);
+
+        for (int y = fromY; y <= toY; y++) {
+            double top = originY + y * cellSize;
+            for (int x = fromX; x <= toX; x++) {
+                double left = originX + x * cellSize;
+                int value = map.get(x, y);
+                if (value != -1) {
+                    gc.setFill(Color.WHITE);
+                    gc.fillRect(left, top, cellSize, cellSize);
+                    gc.setStroke(Color.BLACK);
+                    gc.strokeRect(left, top, cellSize, cellSize);
+                    gc.setFill(Color.BLACK);
+                    gc.fillText(String.valueOf(value), left + cellSize / 2, top + cellSize * 0.6);
+                } else {
+                    gc.setStroke(Color.GRAY);
+                    gc.strokeRect(left, top, cellSize, cellSize);
+                }
+            }
+        }
+
+        int[] edge1 = game.getEdgePoint1();
+        int[] edge2 = game.getEdgePoint2();
+        highlight(gc, edge1[0], edge1[1], Color.RED, 2);
+        highlight(gc, edge2[0], edge2[1], Color.BLUE, 2);
+        if (firstClick != null)
+            highlight(gc, firstClick[0], firstClick[1], Color.YELLOW, 3);
+    }
+
+    private void highlight(GraphicsContext gc, int x, int y, Color color, double lineWidth) {
+        gc.setStroke(color);
+        gc.setLineWidth(lineWidth);
+        gc.strokeRect(originX + x * cellSize, originY + y * cellSize, cellSize, cellSize);
+    }
+
+    private void mousePressed(MouseEvent e) {
+        pressX = e.getX();
+        pressY = e.getY();
+        pressPanX = panX;
+        pressPanY = panY;
+        dragged = false;
+    }
+
+    private void mouseDragged(MouseEvent e) {
+        double dx = e.getX() - pressX;
+        double dy = e.getY() - pressY;
+        if (!dragged && Math.abs(dx) + Math.abs(dy) < DRAG_THRESHOLD)
+            return;
+        dragged = true;
+        panX = pressPanX + dx;
+        panY = pressPanY + dy;
+        redraw();
+    }
+
+    private void mouseReleased(MouseEvent e) {
+        if (dragged || game == null)
+            return;
+        int x = (int) Math.floor((e.getX() - originX) / cellSize);
+        int y = (int) Math.floor((e.getY() - originY) / cellSize);
+        DominoMap map = game.getMap();
+        if (x >= 0 && y >= 0 && x < map.getLength() && y < map.getWidth())
+            onCellClick.accept(x, y);
+    }
+}
@@ -0,0 +1,45 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+
+// Writes the occupied cells of a map in row order for DominoMap.writeTo, so that every
+// representation produces the same bytes. Cells come packed as y << 40 | x << 8 | value in view
+// coordinates. A counting sort on the row and an insertion sort inside the rows, which hold a few
+// cells each, order them in time linear in the cells and the rows. Holds reusable scratch arrays.
+final class CellWriter {
+
+    private long[] sorted = new long[64];
+    private int[] rowStart = new int[16];
+
+    static long pack(int x, int y, int value){
+        return (long) y << 40 | (long) x << 8 | value;
+    }
+
+    void write(ByteBuffer buffer, long[] cells, int count, int width){
+        if (sorted.length < count)
+            sorted = new long[Math.max(count, sorted.length * 2)];
+        if (rowStart.length < width + 1)
+            rowStart = new int[Math.max(width + 1, rowStart.length * 2)];
+
+        for (int y = 0; y <= width; y++)
+            rowStart[y] = 0;
+        for (int i = 0; i < count; i++)
+            rowStart[(int) (cells[i] >>> 40) + 1]++;
+        for (int y = 0; y < width; y++)
+            rowStart[y + 1] += rowStart[y];
+        for (int i = 0; i < count; i++)
+            sorted[rowStart[(int) (cells[i] >>> 40)]++] = cells[i];
+
+        for (int i = 1; i < count; i++) {
+            long cell = sorted[i];
+            int j = i - 1;
+            for (; j >= 0 && sorted[j] > cell; j--)
+                sorted[j + 1] = sorted[j];
+            sorted[j + 1] = cell;
+        }
+
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++)
+            buffer.putInt((int) (sorted[i] >>> 8)).putInt((int) (sorted[i] >>> 40)).put((byte) sorted[i]);
+    }
+}
@@ -0,0 +1,159 @@
+package dominos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Offline job writing the file DealEquityTable reads. Every opening hand of double-six is dealt
+// to seat 1 in a number of seeded games per player count, with the other hands dealt at random
+// and every seat played by the house bot (HeuristicStrategy). Ranges of hands run across a
+// fork-join pool; a game's seed only depends on the seed, the player count, the rank and the
+// sample, so the file does not depend on the thread count.
+public class DealEquityBuilder {
+
+    private static final int HANDS_PER_TASK = 4096;
+
+    // Win share of the hand of every rank in 1/65535, see DealEquityTable
+    public static short[] build(int playersAmount, int samples, long seed, ForkJoinPool pool) {
+        GameConfig.DOUBLE_SIX.checkPlayers(playersAmount);
+        short[] equities = new short[DealEquityTable.HANDS];
+        pool.invoke(new HandsTask(equities, playersAmount, samples, Tournament.seedFor(seed, playersAmount),
+                0, DealEquityTable.HANDS));
+        return equities;
+    }
+
+    // Written to a temporary file first, so readers never map a half written table
+    public static void write(Path file, int[] players, short[][] tables, int samples, long seed) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(DealEquityTable.headerSize(players.length));
+            header.putInt(DealEquityTable.MAGIC);
+            header.put((byte) DealEquityTable.MAX_PIP).put((byte) DealEquityTable.HAND_SIZE);
+            header.put((byte) players.length);
+            for (int p : players)
+                header.put((byte) p);
+            header.putInt(samples).putLong(seed);
+            writeFully(channel, header.flip());
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            for (short[] table : tables)
+                for (int i = 0; i < table.length; ) {
+                    buffer.clear();
+                    while (i < table.length && buffer.remaining() >= 2)
+                        buffer.putShort(table[i++]);
+                    writeFully(channel, buffer.flip());
+                }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    // 1 for a win, shared on a tie
+    private static double winShare(GameResult result, int player) {
+        int best = Integer.MAX_VALUE;
+        int winners = 0;
+        for (int i = 0; i < result.getPlayersAmount(); i++) {
+            int score = result.getScore(i);
+            if (score < best) {
+                best = score;
+                winners = 1;
+            } else if (score == best) {
+                winners++;
+            }
+        }
+        return result.getScore(player) == best ? 1.0 / winners : 0;
+    }
+
+    private static class HandsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final short[] equities;
+        private final int playersAmount;
+        private final int samples;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        HandsTask(short[] equities, int playersAmount, int samples, long seed, int from, int to) {
+            this.equities = equities;
+            this.playersAmount = playersAmount;
+            this.samples = samples;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > HANDS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HandsTask(equities, playersAmount, samples, seed, from, middle),
+                        new HandsTask(equities, playersAmount, samples, seed, middle, to));
+                return;
+            }
+
+            PlayerStrategy[] players = new PlayerStrategy[playersAmount];
+            for (int i = 0; i < playersAmount; i++)
+                players[i] = new HeuristicStrategy();
+            GameEngine engine = new GameEngine(players);
+            ArrayList<Die> hand = new ArrayList<>(DealEquityTable.HAND_SIZE);
+
+            long mask = DealEquityTable.unrank(from);
+            for (int rank = from; rank < to; rank++) {
+                hand.clear();
+                for (long m = mask; m != 0; m &= m - 1)
+                    hand.add(Tiles.die(Long.numberOfTrailingZeros(m)));
+
+                double share = 0;
+                for (int s = 0; s < samples; s++) {
+                    long game = (long) rank * samples + s;
+                    share += winShare(engine.playGame(Tournament.seedFor(seed, game), 0, hand), 0);
+                }
+                equities[rank] = (short) Math.round(share / samples * DealEquityTable.SCALE);
+
+                // next hand of the same size in colex order, which is rank order (Gosper's hack)
+                long lowest = mask & -mask;
+                long ripple = mask + lowest;
+                mask = (((ripple ^ mask) >>> 2) / lowest) | ripple;
+            }
+        }
+    }
+
+    // usage: DealEquityBuilder [file] [samples per hand] [player counts, e.g. 2,3,4] [seed] [threads]
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "deal-equity.bin");
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        String[] counts = (args.length > 2 ? args[2] : "2,3,4").split(",");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        int[] players = new int[counts.length];
+        short[][] tables = new short[counts.length][];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        for (int t = 0; t < counts.length; t++) {
+            players[t] = Integer.parseInt(counts[t].trim());
+            long start = System.nanoTime();
+            tables[t] = build(players[t], samples, seed, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long games = (long) DealEquityTable.HANDS * samples;
+            System.out.printf("%d players: %d hands x %d samples in %.1f s (%.0f games/s)%n",
+                    players[t], DealEquityTable.HANDS, samples, seconds, games / seconds);
+        }
+        pool.shutdown();
+
+        write(file, players, tables, samples, seed);
+        System.out.printf("Wrote %s (%d bytes)%n", file, Files.size(file));
+    }
+}
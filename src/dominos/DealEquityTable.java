@@ -0,0 +1,170 @@
+package dominos;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read side of the file DealEquityBuilder writes: the share of games won with every possible
+// opening hand of double-six, per number of players. The file is memory-mapped and a lookup
+// is one read at the rank of the hand in the combinatorial number system.
+//
+// File layout: int MAGIC, u8 max pip, u8 hand size, u8 table count, u8 players per table,
+// int samples per hand, long seed, then per table and hand rank a u16 win share in 1/65535.
+// A hand of tiles c1 < c2 < ... < ck (see Tiles) has rank C(c1, 1) + C(c2, 2) + ... + C(ck, k).
+public class DealEquityTable {
+
+    public static final int MAGIC = 0x44455131; // "DEQ1"
+    public static final int MAX_PIP = 6;
+    public static final int HAND_SIZE = 7;
+    public static final int TILES = Tiles.count(MAX_PIP);
+    public static final int HANDS = (int) binomial(TILES, HAND_SIZE);
+    public static final double SCALE = 65535;
+
+    private static final long[][] BINOMIAL = new long[TILES + 1][HAND_SIZE + 1];
+
+    static {
+        for (int n = 0; n <= TILES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, HAND_SIZE); k++)
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+        }
+    }
+
+    private final MappedByteBuffer data;
+    private final int[] players;
+    private final int samples;
+    private final long seed;
+    private final int headerSize;
+
+    private DealEquityTable(MappedByteBuffer data) {
+        this.data = data;
+        if (data.getInt() != MAGIC || data.get() != MAX_PIP || data.get() != HAND_SIZE)
+            throw new IllegalArgumentException("not a double-six deal equity table");
+        players = new int[data.get()];
+        for (int i = 0; i < players.length; i++)
+            players[i] = data.get();
+        samples = data.getInt();
+        seed = data.getLong();
+        headerSize = data.position();
+        if (data.capacity() != headerSize + (long) players.length * HANDS * 2)
+            throw new IllegalArgumentException("truncated deal equity table");
+    }
+
+    public static DealEquityTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new DealEquityTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Header size for the given tables, where the u16 entries start
+    static int headerSize(int tables) {
+        return 4 + 3 + tables + 4 + 8;
+    }
+
+    static long binomial(int n, int k) {
+        if (k < 0 || k > n)
+            return 0;
+        long result = 1;
+        for (int i = 1; i <= k; i++)
+            result = result * (n - k + i) / i;
+        return result;
+    }
+
+    // Rank of the hand among all hands of HAND_SIZE tiles; tile masks as in Tiles.mask
+    public static int rank(long hand) {
+        if (Long.bitCount(hand) != HAND_SIZE || hand >>> TILES != 0)
+            throw new IllegalArgumentException("not a double-six hand of " + HAND_SIZE + " tiles");
+        long rank = 0;
+        int k = 1;
+        for (long m = hand; m != 0; m &= m - 1)
+            rank += BINOMIAL[Long.numberOfTrailingZeros(m)][k++];
+        return (int) rank;
+    }
+
+    // The hand with the given rank
+    public static long unrank(int rank) {
+        long hand = 0;
+        long rest = rank;
+        for (int k = HAND_SIZE; k >= 1; k--) {
+            int c = k - 1;
+            while (c + 1 < TILES && BINOMIAL[c + 1][k] <= rest)
+                c++;
+            hand |= 1L << c;
+            rest -= BINOMIAL[c][k];
+        }
+        return hand;
+    }
+
+    public int[] getPlayers() {
+        return players.clone();
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Expected share of games won with the hand, ties split between the winners
+    public double equity(int playersAmount, long hand) {
+        return (data.getShort(offset(playersAmount, rank(hand))) & 0xFFFF) / SCALE;
+    }
+
+    public double equity(int playersAmount, List<Die> hand) {
+        return equity(playersAmount, Tiles.mask(hand));
+    }
+
+    private int offset(int playersAmount, int rank) {
+        for (int t = 0; t < players.length; t++)
+            if (players[t] == playersAmount)
+                return headerSize + (t * HANDS + rank) * 2;
+        throw new IllegalArgumentException("no table for " + playersAmount + " players");
+    }
+
+    private static String describe(long hand) {
+        ArrayList<String> dice = new ArrayList<>();
+        for (long m = hand; m != 0; m &= m - 1) {
+            Die die = Tiles.die(Long.numberOfTrailingZeros(m));
+            dice.add(die.getHead() + "|" + die.getTail());
+        }
+        return String.join(" ", dice);
+    }
+
+    // usage: DealEquityTable [file] [players]
+    // Prints the strongest and the weakest opening hands.
+    public static void main(String[] args) throws IOException {
+        DealEquityTable table = open(Path.of(args.length > 0 ? args[0] : "deal-equity.bin"));
+        int playersAmount = args.length > 1 ? Integer.parseInt(args[1]) : table.players[0];
+
+        long best = 0;
+        long worst = 0;
+        double bestEquity = -1;
+        double worstEquity = 2;
+        double sum = 0;
+        for (int rank = 0; rank < HANDS; rank++) {
+            long hand = unrank(rank);
+            double equity = table.equity(playersAmount, hand);
+            sum += equity;
+            if (equity > bestEquity) {
+                bestEquity = equity;
+                best = hand;
+            }
+            if (equity < worstEquity) {
+                worstEquity = equity;
+                worst = hand;
+            }
+        }
+        System.out.printf("%d players, %d samples per hand: mean equity %.4f%n",
+                playersAmount, table.samples, sum / HANDS);
+        System.out.printf("strongest %s: %.4f%n", describe(best), bestEquity);
+        System.out.printf("weakest   %s: %.4f%n", describe(worst), worstEquity);
+    }
+}
@@ -0,0 +1,368 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// The board as a flat byte grid with spare capacity on every side; extendMap moves the view
+// over it and only copies the cells when the grid has to grow.
+public class DenseDominoMap implements DominoMap {
+
+    private static final byte EMPTY = -1;
+    private static final int MARGIN = 2;
+    private static final int INITIAL_CAPACITY = 32;
+    // x, y and value of an occupied cell in a snapshot
+    private static final int CELL_BYTES = 4 + 4 + 1;
+
+    // flat grid, the visible map is a window of it starting at (originX, originY)
+    private byte[] cells;
+    private int capacityX;
+    private int capacityY;
+    private int originX;
+    private int originY;
+
+    private int length;
+    private int width;
+
+    // bounding box of occupied cells in map coordinates
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    // stable coordinates of the occupied cells, packed as in SparseDominoMap, and their values,
+    // so that writeTo reads neither the whole grid nor scattered cells of it
+    private long[] occupied = new long[64];
+    private byte[] occupiedValues = new byte[64];
+    private int cellCount;
+    private final CellWriter cellWriter = new CellWriter();
+    // occupied cells packed for the cellWriter
+    private long[] order = new long[64];
+
+    // total padding applied since startMap, so (x - shiftX, y - shiftY) never moves
+    private int shiftX;
+    private int shiftY;
+
+    private final int[] padding = new int[2];
+
+    // saved view bounds for undo, MARK_SIZE ints per mark
+    private static final int MARK_SIZE = 8;
+    private int[] marks = new int[MARK_SIZE * 16];
+    private int markCount;
+
+    @Override
+    public int get(int x, int y){
+        checkBounds(x, y);
+        return cells[(originY + y) * capacityX + originX + x];
+    }
+
+    @Override
+    public int getLength(){
+        return length;
+    }
+
+    @Override
+    public int getWidth(){
+        return width;
+    }
+
+    @Override
+    public int getShiftX(){
+        return shiftX;
+    }
+
+    @Override
+    public int getShiftY(){
+        return shiftY;
+    }
+
+    @Override
+    public int getMinOccupiedX(){
+        return minX;
+    }
+
+    @Override
+    public int getMinOccupiedY(){
+        return minY;
+    }
+
+    @Override
+    public int getMaxOccupiedX(){
+        return maxX;
+    }
+
+    @Override
+    public int getMaxOccupiedY(){
+        return maxY;
+    }
+
+    @Override
+    public void set(int v, int x, int y){
+        checkBounds(x, y);
+        int i = (originY + y) * capacityX + originX + x;
+        if (cells[i] == EMPTY && v != EMPTY)
+            addOccupied(key(x - shiftX, y - shiftY), (byte) v);
+        else if (cells[i] != EMPTY && cells[i] != v)
+            updateOccupied(key(x - shiftX, y - shiftY), (byte) v);
+        cells[i] = (byte) v;
+        if (v == EMPTY)
+            return;
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    @Override
+    public void pushMark(){
+        if ((markCount + 1) * MARK_SIZE > marks.length)
+            marks = Arrays.copyOf(marks, marks.length * 2);
+        int m = markCount++ * MARK_SIZE;
+        marks[m] = length;
+        marks[m + 1] = width;
+        marks[m + 2] = minX;
+        marks[m + 3] = minY;
+        marks[m + 4] = maxX;
+        marks[m + 5] = maxY;
+        marks[m + 6] = shiftX;
+        marks[m + 7] = shiftY;
+    }
+
+    @Override
+    public void popMark(){
+        if (markCount == 0)
+            throw new IllegalStateException("no mark to pop");
+        int m = --markCount * MARK_SIZE;
+        // the grid may have been reallocated since, so the origin is moved back by the padding
+        // instead of being restored
+        originX += shiftX - marks[m + 6];
+        originY += shiftY - marks[m + 7];
+        length = marks[m];
+        width = marks[m + 1];
+        minX = marks[m + 2];
+        minY = marks[m + 3];
+        maxX = marks[m + 4];
+        maxY = marks[m + 5];
+        shiftX = marks[m + 6];
+        shiftY = marks[m + 7];
+    }
+
+    @Override
+    public void clearMarks(){
+        markCount = 0;
+    }
+
+    @Override
+    public DominoMap newEmpty(){
+        return new DenseDominoMap();
+    }
+
+    // Reuses the grid when it has the same size
+    @Override
+    public void copyFrom(DominoMap map){
+        if (!(map instanceof DenseDominoMap other))
+            throw new IllegalArgumentException("different map representation");
+        if (cells == null || cells.length != other.cells.length)
+            cells = new byte[other.cells.length];
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        capacityX = other.capacityX;
+        capacityY = other.capacityY;
+        originX = other.originX;
+        originY = other.originY;
+        length = other.length;
+        width = other.width;
+        minX = other.minX;
+        minY = other.minY;
+        maxX = other.maxX;
+        maxY = other.maxY;
+        if (occupied.length < other.cellCount) {
+            occupied = new long[other.occupied.length];
+            occupiedValues = new byte[other.occupied.length];
+        }
+        System.arraycopy(other.occupied, 0, occupied, 0, other.cellCount);
+        System.arraycopy(other.occupiedValues, 0, occupiedValues, 0, other.cellCount);
+        cellCount = other.cellCount;
+        shiftX = other.shiftX;
+        shiftY = other.shiftY;
+        markCount = 0;
+    }
+
+    @Override
+    public int snapshotSize(){
+        return 9 * 4 + cellCount * CELL_BYTES;
+    }
+
+    @Override
+    public void writeTo(ByteBuffer buffer){
+        buffer.putInt(length).putInt(width);
+        buffer.putInt(minX).putInt(minY).putInt(maxX).putInt(maxY);
+        buffer.putInt(shiftX).putInt(shiftY);
+        if (order.length < cellCount)
+            order = new long[occupied.length];
+        for (int i = 0; i < cellCount; i++)
+            order[i] = CellWriter.pack((int) (occupied[i] >> 32) + shiftX, (int) occupied[i] + shiftY,
+                    occupiedValues[i]);
+        cellWriter.write(buffer, order, cellCount, width);
+    }
+
+    @Override
+    public void readFrom(ByteBuffer buffer){
+        length = buffer.getInt();
+        width = buffer.getInt();
+        minX = buffer.getInt();
+        minY = buffer.getInt();
+        maxX = buffer.getInt();
+        maxY = buffer.getInt();
+        shiftX = buffer.getInt();
+        shiftY = buffer.getInt();
+        int count = buffer.getInt();
+        // the view never gets much wider than the chain of occupied cells
+        if (count < 0 || count > buffer.remaining() / CELL_BYTES ||
+                length <= 0 || width <= 0 || length > 2 * count + 8 || width > 2 * count + 8)
+            throw new IllegalArgumentException("bad map size " + length + "x" + width +
+                    " with " + count + " cells");
+
+        int neededX = Math.max(INITIAL_CAPACITY, length * 2);
+        int neededY = Math.max(INITIAL_CAPACITY, width * 2);
+        if (cells == null || capacityX < neededX || capacityY < neededY) {
+            capacityX = Math.max(capacityX, neededX);
+            capacityY = Math.max(capacityY, neededY);
+            cells = new byte[capacityX * capacityY];
+        }
+        Arrays.fill(cells, EMPTY);
+        originX = (capacityX - length) / 2;
+        originY = (capacityY - width) / 2;
+        cellCount = 0;
+        for (int i = 0; i < count; i++) {
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            byte v = buffer.get();
+            if (x < 0 || x >= length || y < 0 || y >= width || v < 0)
+                throw new IllegalArgumentException("bad cell (" + x + "," + y + ")");
+            int cell = (originY + y) * capacityX + originX + x;
+            if (cells[cell] == EMPTY)
+                addOccupied(key(x - shiftX, y - shiftY), v);
+            else
+                updateOccupied(key(x - shiftX, y - shiftY), v);
+            cells[cell] = v;
+        }
+        markCount = 0;
+    }
+
+    @Override
+    public void startMap(Die die){
+        if (cells == null) {
+            capacityX = INITIAL_CAPACITY;
+            capacityY = INITIAL_CAPACITY;
+            cells = new byte[capacityX * capacityY];
+        }
+        Arrays.fill(cells, EMPTY);
+
+        length = 5;
+        width = 6;
+        shiftX = 0;
+        shiftY = 0;
+        markCount = 0;
+        originX = (capacityX - length) / 2;
+        originY = (capacityY - width) / 2;
+
+        minX = maxX = 2;
+        minY = 2;
+        maxY = 3;
+        cellCount = 0;
+        addOccupied(key(2, 2), (byte) die.getHead());
+        addOccupied(key(2, 3), (byte) die.getTail());
+        cells[(originY + 2) * capacityX + originX + 2] = (byte) die.getHead();
+        cells[(originY + 3) * capacityX + originX + 2] = (byte) die.getTail();
+    }
+
+    @Override
+    public int[] extendMap(){
+        DominoEvents.MapGrowth event = new DominoEvents.MapGrowth();
+        event.begin();
+        int paddingX = Math.max(0, MARGIN - minX);
+        int paddingY = Math.max(0, MARGIN - minY);
+        int newLength = Math.max(length, maxX + MARGIN + 1) + paddingX;
+        int newWidth = Math.max(width, maxY + MARGIN + 1) + paddingY;
+
+        boolean reallocated = originX - paddingX < 0 || originY - paddingY < 0 ||
+                originX - paddingX + newLength > capacityX || originY - paddingY + newWidth > capacityY;
+        if (reallocated)
+            grow(newLength, newWidth);
+
+        if ((newLength != length || newWidth != width) && event.shouldCommit()) {
+            event.columnsAdded = newLength - length;
+            event.rowsAdded = newWidth - width;
+            event.reallocated = reallocated;
+            event.commit();
+        }
+
+        originX -= paddingX;
+        originY -= paddingY;
+        length = newLength;
+        width = newWidth;
+        minX += paddingX;
+        maxX += paddingX;
+        minY += paddingY;
+        maxY += paddingY;
+
+        shiftX += paddingX;
+        shiftY += paddingY;
+        padding[0] = paddingX;
+        padding[1] = paddingY;
+        return padding;
+    }
+
+    // Doubles the capacity and centres the current map in it, leaving room for the pending extension
+    private void grow(int newLength, int newWidth){
+        int newCapacityX = Math.max(capacityX * 2, newLength * 2);
+        int newCapacityY = Math.max(capacityY * 2, newWidth * 2);
+        byte[] newCells = new byte[newCapacityX * newCapacityY];
+        Arrays.fill(newCells, EMPTY);
+
+        int newOriginX = (newCapacityX - length) / 2;
+        int newOriginY = (newCapacityY - width) / 2;
+        for (int y = 0; y < width; y++)
+            System.arraycopy(cells, (originY + y) * capacityX + originX,
+                    newCells, (newOriginY + y) * newCapacityX + newOriginX, length);
+
+        cells = newCells;
+        capacityX = newCapacityX;
+        capacityY = newCapacityY;
+        originX = newOriginX;
+        originY = newOriginY;
+    }
+
+    private static long key(int x, int y){
+        return (long) x << 32 | y & 0xFFFFFFFFL;
+    }
+
+    private void addOccupied(long key, byte v){
+        if (cellCount == occupied.length) {
+            occupied = Arrays.copyOf(occupied, cellCount * 2);
+            occupiedValues = Arrays.copyOf(occupiedValues, cellCount * 2);
+        }
+        occupied[cellCount] = key;
+        occupiedValues[cellCount++] = v;
+    }
+
+    // Changes the value of an occupied cell, or empties it. Cells are emptied by undo, newest
+    // first, so the search starts at the end.
+    private void updateOccupied(long key, byte v){
+        for (int i = cellCount - 1; i >= 0; i--)
+            if (occupied[i] == key) {
+                if (v != EMPTY) {
+                    occupiedValues[i] = v;
+                } else {
+                    occupied[i] = occupied[--cellCount];
+                    occupiedValues[i] = occupiedValues[cellCount];
+                }
+                return;
+            }
+    }
+
+    private void checkBounds(int x, int y){
+        if (x < 0 || x >= length || y < 0 || y >= width)
+            throw new IndexOutOfBoundsException("cell (" + x + "," + y + ") is outside the map");
+    }
+
+}
@@ -1,4 +1,4 @@
-
+package dominos;
 
 public class Die {
     private final int head;
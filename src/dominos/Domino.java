@@ -0,0 +1,794 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+
+public class Domino {
+
+    private static final int NOTHING_FITS = -1;
+    private static final int ANYTHING_FITS = Integer.MAX_VALUE;
+
+    private DominoMap map;
+    private ArrayList<Die> pool;
+    private ArrayList<ArrayList<Die>> playersHands;
+    private final int playersAmount;
+    private final GameConfig config;
+    private int[] edgePoint1;
+    private int[] edgePoint2;
+    private final RandomGenerator random;
+    private int[] matchingDice = new int[8];
+    private final ArrayList<Die> unseenScratch;
+
+    // undo records of doMove and doPullDie, UNDO_SIZE ints each
+    private static final int UNDO_SIZE = 12;
+    private static final int UNDO_MOVE = 0;
+    private static final int UNDO_DRAW = 1;
+    private int[] undoStack = new int[UNDO_SIZE * 32];
+    private int undoSize;
+
+    // running totals so the end of the game is known without rescanning hands and pool:
+    // how many tiles with each pip are still in the pool or in hands, and how many hands are empty
+    private final int[] unplayedWithPip;
+    private int emptyHands;
+    // Zobrist keys of where every unplayed tile is, see getHash
+    private long hash;
+
+
+    public Domino(int playersAmount) {
+        this(playersAmount, new SplittableRandom());
+    }
+
+    // All deals and draws come from the given generator, so a seeded one replays the same game
+    public Domino(int playersAmount, RandomGenerator random) {
+        this(playersAmount, GameConfig.DOUBLE_SIX, random);
+    }
+
+    public Domino(int playersAmount, GameConfig config, RandomGenerator random) {
+        this(playersAmount, config, random, new DenseDominoMap());
+    }
+
+    // The map picks the board representation, see DominoMap
+    public Domino(int playersAmount, GameConfig config, RandomGenerator random, DominoMap map) {
+        config.checkPlayers(playersAmount);
+        this.map = map;
+        this.playersAmount = playersAmount;
+        this.config = config;
+        this.random = random;
+        this.unplayedWithPip = new int[config.getMaxPip() + 1];
+        this.unseenScratch = new ArrayList<>(config.getTileCount());
+    }
+
+    // A game restored from writeSnapshot output, sized by the players and set stored in it
+    public static Domino restore(ByteBuffer buffer, RandomGenerator random) {
+        int start = buffer.position();
+        int players = buffer.get(start);
+        GameConfig config = new GameConfig(buffer.get(start + 1), buffer.get(start + 2) & 0xFF);
+        Domino game = new Domino(players, config, random);
+        game.readSnapshot(buffer);
+        return game;
+    }
+
+    // Copies the whole game state, reusing this instance's storage. The random generator is not copied.
+    public void copyFrom(Domino other) {
+        if (other.playersAmount != playersAmount)
+            throw new IllegalArgumentException("different number of players");
+        if (!other.config.equals(config))
+            throw new IllegalArgumentException("different tile set");
+        if (map.getClass() != other.map.getClass())
+            map = other.map.newEmpty();
+        map.copyFrom(other.map);
+
+        if (pool == null)
+            pool = new ArrayList<>(config.getTileCount());
+        pool.clear();
+        pool.addAll(other.pool);
+
+        if (playersHands == null)
+            playersHands = new ArrayList<>();
+        while (playersHands.size() < playersAmount)
+            playersHands.add(new ArrayList<>());
+        for (int i = 0; i < playersAmount; i++) {
+            ArrayList<Die> hand = playersHands.get(i);
+            hand.clear();
+            hand.addAll(other.playersHands.get(i));
+        }
+
+        if (edgePoint1 == null) {
+            edgePoint1 = new int[2];
+            edgePoint2 = new int[2];
+        }
+        edgePoint1[0] = other.edgePoint1[0];
+        edgePoint1[1] = other.edgePoint1[1];
+        edgePoint2[0] = other.edgePoint2[0];
+        edgePoint2[1] = other.edgePoint2[1];
+
+        System.arraycopy(other.unplayedWithPip, 0, unplayedWithPip, 0, unplayedWithPip.length);
+        emptyHands = other.emptyHands;
+        hash = other.hash;
+        undoSize = 0;
+    }
+
+    // Bytes writeSnapshot needs for the current state
+    public int snapshotSize() {
+        int size = 3 + 4 * 4 + 1 + pool.size() + map.snapshotSize();
+        for (ArrayList<Die> hand : playersHands)
+            size += 1 + hand.size();
+        return size;
+    }
+
+    // Compact binary form of the state: players and tile set, edge points, pool and hands as tile
+    // indices, then the map.
+    // The random generator and the undo history are not stored.
+    public void writeSnapshot(ByteBuffer buffer) {
+        writeHeader(buffer);
+        buffer.putInt(edgePoint1[0]).putInt(edgePoint1[1]).putInt(edgePoint2[0]).putInt(edgePoint2[1]);
+        writeTiles(buffer, pool);
+        for (ArrayList<Die> hand : playersHands)
+            writeTiles(buffer, hand);
+        map.writeTo(buffer);
+    }
+
+    // writeSnapshot as the observer sees the game: its own hand is exact, the pool and the other
+    // hands keep their sizes but get the unseen tiles in index order, which tells nothing the
+    // observer cannot work out anyway. Same size and format as writeSnapshot.
+    public void writeView(ByteBuffer buffer, int observer) {
+        int[] unseen = new int[config.getTileCount()];
+        int count = 0;
+        for (Die die : pool)
+            unseen[count++] = Tiles.index(die);
+        for (int p = 0; p < playersAmount; p++)
+            if (p != observer)
+                for (Die die : playersHands.get(p))
+                    unseen[count++] = Tiles.index(die);
+        Arrays.sort(unseen, 0, count);
+
+        writeHeader(buffer);
+        buffer.putInt(edgePoint1[0]).putInt(edgePoint1[1]).putInt(edgePoint2[0]).putInt(edgePoint2[1]);
+        int next = 0;
+        buffer.put((byte) pool.size());
+        for (int i = 0; i < pool.size(); i++)
+            buffer.put((byte) unseen[next++]);
+        for (int p = 0; p < playersAmount; p++) {
+            ArrayList<Die> hand = playersHands.get(p);
+            if (p == observer) {
+                writeTiles(buffer, hand);
+                continue;
+            }
+            buffer.put((byte) hand.size());
+            for (int i = 0; i < hand.size(); i++)
+                buffer.put((byte) unseen[next++]);
+        }
+        map.writeTo(buffer);
+    }
+
+    // Restores a state written by writeSnapshot; the counters and the hash are rebuilt from it
+    public void readSnapshot(ByteBuffer buffer) {
+        if (buffer.get() != playersAmount)
+            throw new IllegalArgumentException("snapshot is for a different number of players");
+        if (buffer.get() != config.getMaxPip() || (buffer.get() & 0xFF) != config.getHandSize())
+            throw new IllegalArgumentException("snapshot is for a different tile set");
+        edgePoint1 = new int[]{buffer.getInt(), buffer.getInt()};
+        edgePoint2 = new int[]{buffer.getInt(), buffer.getInt()};
+        pool = readTiles(buffer, pool, config.getTileCount());
+        if (playersHands == null)
+            playersHands = new ArrayList<>();
+        for (int i = 0; i < playersAmount; i++) {
+            if (i == playersHands.size())
+                playersHands.add(null);
+            playersHands.set(i, readTiles(buffer, playersHands.get(i), config.getTileCount()));
+        }
+        map.readFrom(buffer);
+
+        Arrays.fill(unplayedWithPip, 0);
+        emptyHands = 0;
+        countUnplayed(pool);
+        for (ArrayList<Die> hand : playersHands) {
+            countUnplayed(hand);
+            if (hand.isEmpty())
+                emptyHands++;
+        }
+        hash = ownershipHash();
+        undoSize = 0;
+    }
+
+    private void writeHeader(ByteBuffer buffer) {
+        buffer.put((byte) playersAmount).put((byte) config.getMaxPip()).put((byte) config.getHandSize());
+    }
+
+    private static void writeTiles(ByteBuffer buffer, ArrayList<Die> dice) {
+        buffer.put((byte) dice.size());
+        for (Die die : dice)
+            buffer.put((byte) Tiles.index(die));
+    }
+
+    private static ArrayList<Die> readTiles(ByteBuffer buffer, ArrayList<Die> dice, int tileCount) {
+        if (dice == null)
+            dice = new ArrayList<>(tileCount);
+        dice.clear();
+        int size = buffer.get() & 0xFF;
+        for (int i = 0; i < size; i++) {
+            int tile = buffer.get() & 0xFF;
+            if (tile >= tileCount)
+                throw new IllegalArgumentException("tile " + tile + " is not in the set");
+            dice.add(Tiles.die(tile));
+        }
+        return dice;
+    }
+
+    private void countUnplayed(ArrayList<Die> dice) {
+        for (Die die : dice) {
+            unplayedWithPip[die.getHead()]++;
+            if (!die.isDieDouble())
+                unplayedWithPip[die.getTail()]++;
+        }
+    }
+
+    // Re-deals every die the observer cannot see (other hands and the pool) at random,
+    // keeping all hand sizes and the pool size
+    public void determinize(int observer) {
+        ArrayList<Die> unseen = unseenScratch;
+        unseen.clear();
+        unseen.addAll(pool);
+        for (int i = 0; i < playersAmount; i++)
+            if (i != observer)
+                unseen.addAll(playersHands.get(i));
+
+        for (int i = unseen.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Die t = unseen.get(i);
+            unseen.set(i, unseen.get(j));
+            unseen.set(j, t);
+        }
+
+        int next = 0;
+        for (int i = 0; i < pool.size(); i++)
+            pool.set(i, unseen.get(next++));
+        for (int p = 0; p < playersAmount; p++) {
+            if (p == observer)
+                continue;
+            ArrayList<Die> hand = playersHands.get(p);
+            for (int i = 0; i < hand.size(); i++)
+                hand.set(i, unseen.get(next++));
+        }
+        hash = ownershipHash();
+    }
+
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    public DominoMap getMap() {
+        return map;
+    }
+
+    public ArrayList<Die> getPlayerHand(int index) {
+        return playersHands.get(index);
+    }
+
+    public Die getPoolDie(int index) {
+        return pool.get(index);
+    }
+
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    public int getPlayersAmount() {
+        return playersAmount;
+    }
+
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    public int[] getEdgePoint1() {
+        return edgePoint1;
+    }
+
+    public int[] getEdgePoint2() {
+        return edgePoint2;
+    }
+
+    public void makeHands(){
+        makeHands(-1, List.of());
+    }
+
+    // Deals the given dice to the player and all other hands at random, e.g. to study one
+    // opening hand. A player of -1 deals every hand at random.
+    public void makeHands(int player, List<Die> dealt){
+        if (player >= 0 && dealt.size() != config.getHandSize())
+            throw new IllegalArgumentException("a hand has " + config.getHandSize() + " dice");
+        playersHands = new ArrayList<>();
+        for (int i = 0; i < playersAmount; i++)
+            playersHands.addLast(new ArrayList<>());
+        for (Die die : dealt) {
+            int tile = Tiles.index(die);
+            int index = pool.indexOf(Tiles.die(tile));
+            if (index < 0)
+                throw new IllegalArgumentException("tile " + tile + " is not in the pool");
+            playersHands.get(player).add(takeFromPool(index, player));
+        }
+        for (int i = 0; i < playersAmount; i++) {
+            if (i == player)
+                continue;
+            ArrayList<Die> hand = playersHands.get(i);
+            for (int j = 0; j < config.getHandSize(); j++)
+                hand.add(takeFromPool(random.nextInt(pool.size()), i));
+        }
+        emptyHands = 0;
+    }
+
+    public void pullDie(int player){
+        if (pool.isEmpty())
+            throw new ArrayIndexOutOfBoundsException("pool is empty");
+        ArrayList<Die> hand = playersHands.get(player);
+        if (hand.isEmpty())
+            emptyHands--;
+        hand.addLast(takeFromPool(random.nextInt(pool.size()), player));
+    }
+
+    // The pool is unordered, so the last die fills the gap instead of shifting the rest
+    private Die takeFromPool(int index, int player){
+        Die die = pool.get(index);
+        int tile = Tiles.index(die);
+        hash ^= Zobrist.tile(Zobrist.POOL, tile) ^ Zobrist.tile(player, tile);
+        pool.set(index, pool.getLast());
+        pool.removeLast();
+        return die;
+    }
+
+    public void generateDieSet(){
+        int tileCount = config.getTileCount();
+        pool = new ArrayList<Die>(tileCount);
+        hash = 0;
+        for (int i = 0; i < tileCount; i++) {
+            pool.addLast(Tiles.die(i));
+            hash ^= Zobrist.tile(Zobrist.POOL, i);
+        }
+        // every pip appears on maxPip + 1 tiles
+        Arrays.fill(unplayedWithPip, config.getMaxPip() + 1);
+        emptyHands = 0;
+    }
+
+    public long getPoolMask(){
+        return Tiles.mask(pool);
+    }
+
+    public int startMap(){
+        Die currentStartDie = playersHands.getFirst().getFirst();
+        int index = 0;
+        if (currentStartDie.getHead() == 0 && currentStartDie.getTail() == 0 && playersHands.getFirst().size() > 1)
+            currentStartDie = playersHands.getFirst().get(1);
+
+        for (int i = 0; i < playersHands.size(); i++){
+            ArrayList<Die> hand = playersHands.get(i);
+
+            for (Die currentDie : hand){
+                if (currentDie.getHead() != 0 && currentDie.getTail() !=0) {
+
+                    if (currentStartDie.isDieDouble()) {
+                        if (currentDie.isDieDouble() && currentDie.sum() < currentStartDie.sum()) {
+                            currentStartDie = currentDie;
+                            index = i;
+
+                        }
+                    } else if (currentDie.isDieDouble() || currentDie.sum() < currentStartDie.sum()) {
+                        currentStartDie = currentDie;
+                        index = i;
+                    }
+                }
+            }
+        }
+
+        playersHands.get(index).remove(currentStartDie);
+        hash ^= Zobrist.tile(index, Tiles.index(currentStartDie));
+        if (playersHands.get(index).isEmpty())
+            emptyHands++;
+        markPlayed(currentStartDie);
+        map.startMap(currentStartDie);
+        edgePoint1 = new int[]{2, 2};
+        edgePoint2 = new int[]{2, 3};
+        undoSize = 0;
+        return index;
+    }
+
+    public void makeMove(int player, int index, int headX, int headY, int paddingX, int paddingY){
+        ArrayList<Die> hand = playersHands.get(player);
+        placeDie(hand.get(index), headX, headY, paddingX, paddingY);
+        hash ^= Zobrist.tile(player, Tiles.index(hand.remove(index)));
+        if (hand.isEmpty())
+            emptyHands++;
+    }
+
+    // makeMove that can be taken back with undoMove
+    public void doMove(int player, int index, int headX, int headY, int paddingX, int paddingY){
+        int u = pushUndo(UNDO_MOVE, player, index);
+        undoStack[u + 3] = headX;
+        undoStack[u + 4] = headY;
+        undoStack[u + 5] = headX + paddingX;
+        undoStack[u + 6] = headY + paddingY;
+        undoStack[u + 7] = edgePoint1[0];
+        undoStack[u + 8] = edgePoint1[1];
+        undoStack[u + 9] = edgePoint2[0];
+        undoStack[u + 10] = edgePoint2[1];
+        map.pushMark();
+        try {
+            makeMove(player, index, headX, headY, paddingX, paddingY);
+        } catch (RuntimeException e) {
+            map.popMark();
+            undoSize -= UNDO_SIZE;
+            throw e;
+        }
+    }
+
+    public void doMove(int player, MoveBuffer moves, int i){
+        doMove(player, moves.getDieIndex(i), moves.getHeadX(i), moves.getHeadY(i),
+                moves.getPaddingX(i), moves.getPaddingY(i));
+    }
+
+    // pullDie that can be taken back with undoMove
+    public void doPullDie(int player){
+        if (pool.isEmpty())
+            throw new ArrayIndexOutOfBoundsException("pool is empty");
+        doPullDie(player, random.nextInt(pool.size()));
+    }
+
+    // Draws a chosen die from the pool, e.g. to walk through every outcome of a draw
+    public void doPullDie(int player, int poolIndex){
+        pushUndo(UNDO_DRAW, player, poolIndex);
+        ArrayList<Die> hand = playersHands.get(player);
+        if (hand.isEmpty())
+            emptyHands--;
+        hand.addLast(takeFromPool(poolIndex, player));
+    }
+
+    // Takes back the last doMove or doPullDie
+    public void undoMove(){
+        if (undoSize == 0)
+            throw new IllegalStateException("nothing to undo");
+        undoSize -= UNDO_SIZE;
+        int u = undoSize;
+        int player = undoStack[u + 1];
+        int index = undoStack[u + 2];
+        ArrayList<Die> hand = playersHands.get(player);
+
+        if (undoStack[u] == UNDO_DRAW) {
+            Die die = hand.removeLast();
+            hash ^= Zobrist.tile(player, Tiles.index(die)) ^ Zobrist.tile(Zobrist.POOL, Tiles.index(die));
+            if (hand.isEmpty())
+                emptyHands++;
+            // reverse of takeFromPool
+            pool.addLast(die);
+            int last = pool.size() - 1;
+            if (index != last) {
+                pool.set(last, pool.get(index));
+                pool.set(index, die);
+            }
+            return;
+        }
+
+        map.popMark();
+        int headX = undoStack[u + 3];
+        int headY = undoStack[u + 4];
+        Die die = Tiles.die(map.get(headX, headY), map.get(undoStack[u + 5], undoStack[u + 6]));
+        map.set(-1, headX, headY);
+        map.set(-1, undoStack[u + 5], undoStack[u + 6]);
+        edgePoint1[0] = undoStack[u + 7];
+        edgePoint1[1] = undoStack[u + 8];
+        edgePoint2[0] = undoStack[u + 9];
+        edgePoint2[1] = undoStack[u + 10];
+
+        if (hand.isEmpty())
+            emptyHands--;
+        hand.add(index, die);
+        hash ^= Zobrist.tile(player, Tiles.index(die));
+        unplayedWithPip[die.getHead()]++;
+        if (!die.isDieDouble())
+            unplayedWithPip[die.getTail()]++;
+    }
+
+    // 64-bit Zobrist hash of the tile owners, the open-end values and the side to move
+    public long getHash(int sideToMove){
+        return hash ^ Zobrist.side(sideToMove) ^ Zobrist.ends(
+                map.get(edgePoint1[0], edgePoint1[1]), map.get(edgePoint2[0], edgePoint2[1]));
+    }
+
+    private long ownershipHash(){
+        long h = 0;
+        for (Die die : pool)
+            h ^= Zobrist.tile(Zobrist.POOL, Tiles.index(die));
+        for (int p = 0; p < playersAmount; p++)
+            for (Die die : playersHands.get(p))
+                h ^= Zobrist.tile(p, Tiles.index(die));
+        return h;
+    }
+
+    public int getUndoDepth(){
+        return undoSize / UNDO_SIZE;
+    }
+
+    private int pushUndo(int type, int player, int index){
+        if (undoSize + UNDO_SIZE > undoStack.length)
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+        int u = undoSize;
+        undoStack[u] = type;
+        undoStack[u + 1] = player;
+        undoStack[u + 2] = index;
+        undoSize += UNDO_SIZE;
+        return u;
+    }
+
+    public void makeMove(int player, MoveBuffer moves, int i){
+        makeMove(player, moves.getDieIndex(i), moves.getHeadX(i), moves.getHeadY(i),
+                moves.getPaddingX(i), moves.getPaddingY(i));
+    }
+
+    // Fills the buffer with every legal placement for the player's hand in one pass
+    // over the cells around both open ends. Returns the number of moves.
+    public int generateMoves(int player, MoveBuffer moves){
+        moves.clear();
+        ArrayList<Die> hand = playersHands.get(player);
+        addMoves(hand, edgePoint1, 1, moves);
+        addMoves(hand, edgePoint2, 2, moves);
+        return moves.size();
+    }
+
+    private void addMoves(ArrayList<Die> hand, int[] edge, int edgeNumber, MoveBuffer moves){
+        int value = map.get(edge[0], edge[1]);
+        int matching = 0;
+        for (int i = 0; i < hand.size(); i++) {
+            Die die = hand.get(i);
+            if (die.getHead() == value || die.getTail() == value) {
+                if (matching == matchingDice.length)
+                    matchingDice = Arrays.copyOf(matchingDice, matching * 2);
+                matchingDice[matching++] = i;
+            }
+        }
+        if (matching == 0)
+            return;
+
+        for (int near = 0; near < 4; near++) {
+            int nearX = edge[0] + MoveBuffer.paddingX(near);
+            int nearY = edge[1] + MoveBuffer.paddingY(near);
+            // cells touching the first end were already listed from there
+            if (edgeNumber == 2 && isAttachedToEdge(nearX, nearY) == 1)
+                continue;
+            if (isPossibleToPlace(value, nearX, nearY) < 0)
+                continue;
+
+            for (int far = 0; far < 4; far++) {
+                if (far == (near + 2) % 4)
+                    continue; // back onto the edge
+                int farX = nearX + MoveBuffer.paddingX(far);
+                int farY = nearY + MoveBuffer.paddingY(far);
+                if (edgeNumber == 2 && isAttachedToEdge(farX, farY) == 1)
+                    continue;
+                int fitting = fittingValue(farX, farY);
+                if (fitting == NOTHING_FITS)
+                    continue;
+
+                for (int m = 0; m < matching; m++) {
+                    int i = matchingDice[m];
+                    Die die = hand.get(i);
+                    if (die.getHead() == value) {
+                        if (fitting == ANYTHING_FITS || fitting == die.getTail())
+                            moves.add(i, nearX, nearY, far, edgeNumber);
+                    } else if (fitting == ANYTHING_FITS || fitting == die.getHead()) {
+                        moves.add(i, farX, farY, (far + 2) % 4, edgeNumber);
+                    }
+                }
+            }
+        }
+    }
+
+    // The same checks as isPossibleToPlace for every value at once: returns the only value
+    // that may go into the cell, or one of the two constants
+    private int fittingValue(int x, int y){
+        if (map.get(x, y) != -1)
+            return NOTHING_FITS;
+
+        int fitting = ANYTHING_FITS;
+        if (x - 1 > 0)
+            fitting = fittingNext(fitting, x - 1, y);
+        if (y + 1 < map.getWidth())
+            fitting = fittingNext(fitting, x, y + 1);
+        if (x + 1 < map.getLength())
+            fitting = fittingNext(fitting, x + 1, y);
+        if (y - 1 > 0)
+            fitting = fittingNext(fitting, x, y - 1);
+        return fitting;
+    }
+
+    private int fittingNext(int fitting, int x, int y){
+        int v = map.get(x, y);
+        if (v == -1 || fitting == NOTHING_FITS)
+            return fitting;
+        if (!isEdge(x, y) || fitting != ANYTHING_FITS && fitting != v)
+            return NOTHING_FITS;
+        return v;
+    }
+
+    public void placeDie(Die die, int headX, int headY, int paddingX, int paddingY){
+        DominoEvents.Move event = new DominoEvents.Move();
+        event.begin();
+        if (isAttachedToEdge(headX, headY) +
+                isAttachedToEdge(headX + paddingX, headY + paddingY) > 0)
+
+            if (paddingX * paddingY == 0 && Math.abs(paddingX + paddingY) == 1) // не диагонально
+                if (isPossibleToPlace(die.getHead(), headX, headY) +
+                        isPossibleToPlace(die.getTail(), headX + paddingX, headY + paddingY) >= 1) {
+
+                    map.set(die.getHead(), headX, headY);
+                    map.set(die.getTail(), headX + paddingX, headY + paddingY);
+                    markPlayed(die);
+
+                    int attachingParameter = isAttachedToEdge(headX, headY);
+                    if (attachingParameter > 0)
+                        switch (attachingParameter){
+                            case 1:
+                                edgePoint1[0] = headX + paddingX;
+                                edgePoint1[1] = headY + paddingY;
+                                break;
+                            case 2:
+                                edgePoint2[0] = headX + paddingX;
+                                edgePoint2[1] = headY + paddingY;
+                                break;
+                        }
+
+                    attachingParameter = isAttachedToEdge(headX + paddingX, headY + paddingY);
+                    if (attachingParameter > 0){
+                        switch (attachingParameter){
+                            case 1:
+                                edgePoint1[0] = headX;
+                                edgePoint1[1] = headY;
+                                break;
+                            case 2:
+                                edgePoint2[0] = headX;
+                                edgePoint2[1] = headY;
+                                break;
+                        }
+                    }
+
+                    int[] padding = map.extendMap();
+
+                    for (int i = 0; i < edgePoint1.length; i++)
+                        edgePoint1[i] += padding[i];
+                    for (int i = 0; i < edgePoint2.length; i++)
+                        edgePoint2[i] += padding[i];
+
+                    if (event.shouldCommit()) {
+                        event.tile = Tiles.index(die);
+                        event.boardLength = map.getLength();
+                        event.boardWidth = map.getWidth();
+                        event.commit();
+                    }
+
+                }else throw new IllegalArgumentException("Illegal Move");
+            else throw new IllegalArgumentException("Illegal Move: diagonal placement");
+        else throw new IllegalArgumentException("Illegal Move: not on edge");
+    }
+
+    public boolean isLegalMove(Die die, int headX, int headY, int paddingX, int paddingY){
+        int tailX = headX + paddingX;
+        int tailY = headY + paddingY;
+        if (paddingX * paddingY != 0 || Math.abs(paddingX + paddingY) != 1)
+            return false;
+        if (!isOnMap(headX, headY) || !isOnMap(tailX, tailY))
+            return false;
+        if (isAttachedToEdge(headX, headY) + isAttachedToEdge(tailX, tailY) == 0)
+            return false;
+
+        int head = isPossibleToPlace(die.getHead(), headX, headY);
+        int tail = isPossibleToPlace(die.getTail(), tailX, tailY);
+        return head >= 0 && tail >= 0 && head + tail >= 1;
+    }
+
+    private boolean isOnMap(int x, int y){
+        return x >= 0 && y >= 0 && x < map.getLength() && y < map.getWidth();
+    }
+
+    public int isAttachedToEdge(int x, int y){
+        if (Math.abs(x - edgePoint1[0]) + Math.abs(y - edgePoint1[1]) == 1)
+            return 1;
+        if (Math.abs(x - edgePoint2[0]) + Math.abs(y - edgePoint2[1]) == 1)
+            return 2;
+        return 0;
+    }
+
+    public boolean oneAttached(int x, int y){
+        int result = 0;
+        if (map.get(x - 1, y) != -1){
+            result++;
+        }
+        if (map.get(x + 1, y) != -1){
+            result++;
+        }
+        if (map.get(x, y - 1) != -1){
+            result++;
+        }
+        if (map.get(x, y + 1) != -1){
+            result++;
+        }
+        return result == 1;
+    }
+
+    public boolean isEdge(int x, int y){
+        return x == edgePoint1[0] && y == edgePoint1[1] ||
+                x == edgePoint2[0] && y == edgePoint2[1];
+    }
+
+    public int isPossibleToPlace(int value, int x, int y){
+        int sum = 0;
+
+        if (map.get(x,y) != -1)
+            return -1;
+
+        if (x - 1 > 0) {
+            if (map.get(x - 1, y) != -1 && !(map.get(x - 1, y) == value && isEdge(x - 1, y)))
+                return -1;
+            sum += map.get(x - 1, y) + 1;
+        }
+        if (y + 1 < map.getWidth()){
+            if (map.get(x, y + 1) != -1 && !(map.get(x, y + 1) == value && isEdge(x, y + 1)))
+                return -1;
+            sum += map.get(x, y + 1) + 1;
+        }
+        if (x + 1 < map.getLength()) {
+            if (map.get(x + 1, y) != -1 && !(map.get(x + 1, y) == value && isEdge(x + 1, y)))
+                return -1;
+            sum += map.get(x + 1, y) + 1;
+        }
+        if (y - 1 > 0) {
+            if (map.get(x, y - 1) != -1 && !(map.get(x, y - 1) == value && isEdge(x, y - 1)))
+                return -1;
+            sum += map.get(x, y - 1) + 1;
+        }
+
+        if (sum == 0)
+            return 0;
+
+        return 1;
+    }
+
+    private void markPlayed(Die die){
+        unplayedWithPip[die.getHead()]--;
+        if (!die.isDieDouble())
+            unplayedWithPip[die.getTail()]--;
+    }
+
+    public int getHandSize(int player){
+        return playersHands.get(player).size();
+    }
+
+    // Tiles left in the pool and in all hands that have the pip
+    public int getUnplayedWithPip(int pip){
+        return unplayedWithPip[pip];
+    }
+
+    public boolean handIsEmpty(){
+        return emptyHands > 0;
+    }
+
+    public boolean fishHappens(){
+        return unplayedWithPip[map.get(edgePoint1[0], edgePoint1[1])] == 0 &&
+                unplayedWithPip[map.get(edgePoint2[0], edgePoint2[1])] == 0;
+    }
+
+    public int countScore(int player){
+        int sum = 0;
+        ArrayList<Die> hand = playersHands.get(player);
+        if (!hand.isEmpty())
+            for (Die d : hand){
+                sum += d.getTail() + d.getHead();
+            }
+        if (hand.size() == 1 && !fishHappens())
+            return 25;
+        return sum;
+    }
+
+}
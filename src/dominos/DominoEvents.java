@@ -0,0 +1,112 @@
+package dominos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Java Flight Recorder events of the engine and the UI. Each call site creates the event,
+// calls begin() before the work and fills in the fields only if shouldCommit() is true, so a
+// disabled event is an allocation the JIT removes and a flag check.
+//
+// Record with: java -XX:StartFlightRecording=filename=domino.jfr ... and read the result with
+// "jfr print --categories Domino domino.jfr". For long simulations the per-move events can be
+// turned off with -XX:StartFlightRecording=...,domino.Move#enabled=false (JDK 17+).
+public final class DominoEvents {
+
+    private DominoEvents() {
+    }
+
+    @Name("domino.Move")
+    @Label("Move")
+    @Description("A die placed on the board")
+    @Category({"Domino", "Engine"})
+    @StackTrace(false)
+    public static class Move extends Event {
+        @Label("Tile")
+        public int tile;
+        @Label("Board Length")
+        public int boardLength;
+        @Label("Board Width")
+        public int boardWidth;
+    }
+
+    @Name("domino.MapGrowth")
+    @Label("Map Growth")
+    @Description("The visible map grew after a move")
+    @Category({"Domino", "Engine"})
+    @StackTrace(false)
+    public static class MapGrowth extends Event {
+        @Label("Columns Added")
+        public int columnsAdded;
+        @Label("Rows Added")
+        public int rowsAdded;
+        @Label("Reallocated")
+        @Description("The backing grid had to be reallocated")
+        public boolean reallocated;
+    }
+
+    @Name("domino.BotDecision")
+    @Label("Bot Decision")
+    @Description("A strategy choosing among the legal moves")
+    @Category({"Domino", "Bot"})
+    @StackTrace(false)
+    public static class BotDecision extends Event {
+        @Label("Strategy")
+        public String strategy;
+        @Label("Player")
+        public int player;
+        @Label("Candidates")
+        @Description("Legal moves the strategy chose from")
+        public int candidates;
+    }
+
+    @Name("domino.BoardRebuild")
+    @Label("Board Rebuild")
+    @Description("The board view brought up to date with the map")
+    @Category({"Domino", "UI"})
+    @StackTrace(false)
+    public static class BoardRebuild extends Event {
+        @Label("Renderer")
+        public String renderer;
+        @Label("Cells")
+        @Description("Map cells covered by the view")
+        public int cells;
+        @Label("Nodes")
+        @Description("Scene graph nodes in the board pane")
+        public int nodes;
+    }
+
+    @Name("domino.GameStart")
+    @Label("Game Start")
+    @Category({"Domino", "Game"})
+    @StackTrace(false)
+    public static class GameStart extends Event {
+        @Label("Players")
+        public int players;
+        @Label("Starter")
+        public int starter;
+        @Label("Seed")
+        @Description("Seed of the deal, 0 when unknown")
+        public long seed;
+    }
+
+    // begins with the deal, so the duration is the length of the game
+    @Name("domino.GameEnd")
+    @Label("Game End")
+    @Category({"Domino", "Game"})
+    @StackTrace(false)
+    public static class GameEnd extends Event {
+        @Label("Players")
+        public int players;
+        @Label("Turns")
+        public int turns;
+        @Label("Fish")
+        public boolean fish;
+        @Label("Winner")
+        @Description("Player with the lowest score, -1 on a tie")
+        public int winner;
+    }
+}
@@ -1,3 +1,5 @@
+package dominos;
+
 import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -13,7 +15,14 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class DominoGUI extends Application {
     private Domino game;
@@ -28,8 +37,27 @@ public class DominoGUI extends Application {
 
     // Game settings
     private int totalPlayers = 4;
+    private GameConfig config = GameConfig.DOUBLE_SIX;
     private int botCount = 0;
     private boolean[] isBot;
+    private final PlayerStrategy bot = new HeuristicStrategy();
+    private final BotService botService = new BotService();
+    private static final long BOT_DELAY_NANOS = 1_500_000_000L;
+    // bumped on restart so delayed bot turns of the old game are ignored
+    private long gameGeneration;
+
+    // JFR event spanning the current game, see DominoEvents
+    private DominoEvents.GameEnd gameEvent;
+    private int turns;
+
+    // Saved after every move and offered in the settings dialog, removed when a game ends
+    private static final Path AUTOSAVE = Path.of(System.getProperty("user.home"), ".domino-autosave.dgs");
+    // Snapshots are encoded on the JavaFX thread and written here, in order, off that thread
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "domino-autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // Board scaling
     private double cellSize = 40;
@@ -37,11 +65,36 @@ public class DominoGUI extends Application {
     private final double maxCellSize = 60;
     private HBox zoomControls;
 
+    // Board rendering
+    private final ArrayList<BoardCell> boardCells = new ArrayList<>();
+    private Rectangle edge1Highlight;
+    private Rectangle edge2Highlight;
+    private Rectangle firstClickHighlight;
+    private Font cellFont;
+    private double cellFontSize = -1;
+    private CanvasBoard canvasBoard;
+    private boolean canvasMode = false;
+    private StackPane boardStack;
+    private PerfOverlay perfOverlay;
+
     @Override
     public void start(Stage primaryStage) {
         showSettingsDialog(primaryStage);
     }
 
+    @Override
+    public void stop() {
+        botService.shutdown();
+        // let the last autosave reach the disk
+        saver.shutdown();
+        try {
+            if (!saver.awaitTermination(5, TimeUnit.SECONDS))
+                System.err.println("Autosave still running at exit");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void showSettingsDialog(Stage primaryStage) {
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Game Settings");
@@ -54,9 +107,9 @@ public class DominoGUI extends Application {
         grid.setPadding(new Insets(20));
 
         // Player count selection
-        Label playerLabel = new Label("Number of players (1-4):");
+        Label playerLabel = new Label("Number of players (1-" + GameConfig.MAX_PLAYERS + "):");
         ComboBox<Integer> playerCombo = new ComboBox<>();
-        for (int i = 1; i <= 4; i++) {
+        for (int i = 1; i <= GameConfig.MAX_PLAYERS; i++) {
             playerCombo.getItems().add(i);
         }
         playerCombo.setValue(4);
@@ -66,26 +119,55 @@ public class DominoGUI extends Application {
         ComboBox<Integer> botCombo = new ComboBox<>();
         updateBotCombo(botCombo, 4);
 
-        // Update bot combo when player count changes
+        // Tile set (double-n) and hand size selection
+        Label setLabel = new Label("Tile set (double-n):");
+        ComboBox<Integer> setCombo = new ComboBox<>();
+        for (int maxPip = 6; maxPip <= Tiles.MAX_PIP; maxPip += 3) {
+            setCombo.getItems().add(maxPip);
+        }
+        setCombo.setValue(6);
+        Label handLabel = new Label("Tiles per hand:");
+        ComboBox<Integer> handCombo = new ComboBox<>();
+        updateHandCombo(handCombo, 6, 4);
+
+        // Update bot and hand combos when player count or set changes
         playerCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
             updateBotCombo(botCombo, newVal);
+            updateHandCombo(handCombo, setCombo.getValue(), newVal);
+        });
+        setCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+            updateHandCombo(handCombo, newVal, playerCombo.getValue());
         });
 
         grid.add(playerLabel, 0, 0);
         grid.add(playerCombo, 1, 0);
         grid.add(botLabel, 0, 1);
         grid.add(botCombo, 1, 1);
+        grid.add(setLabel, 0, 2);
+        grid.add(setCombo, 1, 2);
+        grid.add(handLabel, 0, 3);
+        grid.add(handCombo, 1, 3);
 
         dialog.getDialogPane().setContent(grid);
 
         // Add buttons
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        ButtonType resumeButton = new ButtonType("Resume Saved Game");
+        if (Files.exists(AUTOSAVE))
+            dialog.getDialogPane().getButtonTypes().add(resumeButton);
 
         // Handle result
         dialog.showAndWait().ifPresent(result -> {
-            if (result == ButtonType.OK) {
+            if (result == resumeButton) {
+                if (resumeGame()) {
+                    createGUI(primaryStage);
+                } else {
+                    showSettingsDialog(primaryStage);
+                }
+            } else if (result == ButtonType.OK) {
                 totalPlayers = playerCombo.getValue();
                 botCount = botCombo.getValue();
+                config = new GameConfig(setCombo.getValue(), handCombo.getValue());
                 initializeGame();
                 createGUI(primaryStage);
             } else {
@@ -102,11 +184,27 @@ public class DominoGUI extends Application {
         botCombo.setValue(0);
     }
 
+    // Every player must be dealt a full hand from the set
+    private void updateHandCombo(ComboBox<Integer> handCombo, int maxPip, int playerCount) {
+        handCombo.getItems().clear();
+        for (int i = 1; i <= Tiles.count(maxPip) / playerCount; i++) {
+            handCombo.getItems().add(i);
+        }
+        handCombo.setValue(GameConfig.standard(maxPip, playerCount).getHandSize());
+    }
+
     private void initializeGame() {
-        game = new Domino(totalPlayers);
+        game = new Domino(totalPlayers, config, new SplittableRandom());
         game.generateDieSet();
         game.makeHands();
-        game.startMap();
+        int starter = game.startMap();
+        startGameEvents();
+        DominoEvents.GameStart event = new DominoEvents.GameStart();
+        if (event.shouldCommit()) {
+            event.players = totalPlayers;
+            event.starter = starter;
+            event.commit();
+        }
 
         // Initialize bot array
         isBot = new boolean[totalPlayers];
@@ -121,6 +219,75 @@ public class DominoGUI extends Application {
         }
     }
 
+    private boolean resumeGame() {
+        try {
+            GameSnapshot snapshot = GameSnapshot.load(AUTOSAVE);
+            game = snapshot.getGame();
+            currentPlayer = snapshot.getCurrentPlayer();
+            isBot = snapshot.getIsBot();
+            totalPlayers = isBot.length;
+            config = game.getConfig();
+            botCount = 0;
+            for (boolean b : isBot)
+                if (b) botCount++;
+            startGameEvents();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cannot resume: " + e.getMessage());
+            deleteAutosave();
+            return false;
+        }
+    }
+
+    private void startGameEvents() {
+        gameEvent = new DominoEvents.GameEnd();
+        gameEvent.begin();
+        turns = 0;
+    }
+
+    private void endGameEvents(boolean fish) {
+        if (!gameEvent.shouldCommit())
+            return;
+        int winner = 0;
+        boolean tie = false;
+        for (int i = 1; i < totalPlayers; i++) {
+            int score = game.countScore(i);
+            if (score == game.countScore(winner)) {
+                tie = true;
+            } else if (score < game.countScore(winner)) {
+                winner = i;
+                tie = false;
+            }
+        }
+        gameEvent.players = totalPlayers;
+        gameEvent.turns = turns;
+        gameEvent.fish = fish;
+        gameEvent.winner = tie ? -1 : winner;
+        gameEvent.commit();
+    }
+
+    private void autosave() {
+        ByteBuffer snapshot = new GameSnapshot(game, currentPlayer, isBot).encode();
+        saver.execute(() -> {
+            try {
+                GameSnapshot.write(AUTOSAVE, snapshot);
+            } catch (IOException e) {
+                System.err.println("Autosave failed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Queued behind pending saves, so a late save cannot bring a finished game back
+    private void deleteAutosave() {
+        saver.execute(() -> {
+            try {
+                Files.deleteIfExists(AUTOSAVE);
+            } catch (IOException e) {
+                System.err.println("Cannot delete autosave: " + e.getMessage());
+            }
+        });
+    }
+
     private void createGUI(Stage primaryStage) {
         root = new VBox(10);
         root.setPadding(new Insets(10));
@@ -140,16 +307,27 @@ public class DominoGUI extends Application {
         zoomControls = createZoomControls();
 
         // Game board
+        canvasBoard = new CanvasBoard(this::handleCellClick);
+        canvasBoard.setStyle("-fx-background-color: #1a1a1a; -fx-border-color: #555; -fx-border-width: 2;");
+        canvasBoard.setMinHeight(400);
+        canvasBoard.setMinWidth(600);
+        perfOverlay = new PerfOverlay(
+                () -> canvasMode ? canvasBoard.getChildren().size() : boardPane.getChildren().size(),
+                () -> game.getMap());
         createBoardPane();
+        boardStack = new StackPane(canvasMode ? canvasBoard : boardPane, perfOverlay);
+        StackPane.setAlignment(perfOverlay, Pos.TOP_LEFT);
+        VBox.setVgrow(boardStack, Priority.ALWAYS);
 
         // Current player hand (only one visible at a time)
         createCurrentPlayerHand();
 
         // Add all components to root in correct order
-        root.getChildren().addAll(statusLabel, topControlBox, zoomControls, boardPane, currentPlayerHand);
+        root.getChildren().addAll(statusLabel, topControlBox, zoomControls, boardStack, currentPlayerHand);
 
         Scene scene = new Scene(root, 1000, 700);
-        primaryStage.setTitle("Domino Game - " + totalPlayers + " Players (" + botCount + " bots)");
+        primaryStage.setTitle("Domino Game - " + totalPlayers + " Players (" + botCount + " bots), double-" +
+                config.getMaxPip());
         primaryStage.setScene(scene);
         primaryStage.show();
 
@@ -167,6 +345,13 @@ public class DominoGUI extends Application {
         boardPane.setMinHeight(400);
         boardPane.setMinWidth(600);
 
+        // Cell nodes are created on demand and kept below these three overlays
+        boardCells.clear();
+        edge1Highlight = createHighlight(Color.RED, 2);
+        edge2Highlight = createHighlight(Color.BLUE, 2);
+        firstClickHighlight = createHighlight(Color.YELLOW, 3);
+        boardPane.getChildren().addAll(edge1Highlight, edge2Highlight, firstClickHighlight);
+
         updateBoard();
     }
 
@@ -187,7 +372,21 @@ public class DominoGUI extends Application {
         resetZoomButton.setStyle("-fx-background-color: #666; -fx-text-fill: white;");
         resetZoomButton.setOnAction(e -> resetZoom());
 
-        zoomBox.getChildren().addAll(zoomInButton, zoomOutButton, resetZoomButton);
+        Button rendererButton = new Button(canvasMode ? "Node View" : "Canvas View");
+        rendererButton.setStyle("-fx-background-color: #666; -fx-text-fill: white;");
+        rendererButton.setOnAction(e -> {
+            toggleRenderer();
+            rendererButton.setText(canvasMode ? "Node View" : "Canvas View");
+        });
+
+        Button statsButton = new Button("Show Stats");
+        statsButton.setStyle("-fx-background-color: #666; -fx-text-fill: white;");
+        statsButton.setOnAction(e -> {
+            perfOverlay.toggle();
+            statsButton.setText(perfOverlay.isVisible() ? "Hide Stats" : "Show Stats");
+        });
+
+        zoomBox.getChildren().addAll(zoomInButton, zoomOutButton, resetZoomButton, rendererButton, statsButton);
         return zoomBox;
     }
 
@@ -207,6 +406,14 @@ public class DominoGUI extends Application {
 
     private void resetZoom() {
         cellSize = 40;
+        canvasBoard.resetPan();
+        updateBoard();
+    }
+
+    // Switches between one node per cell and the culled canvas
+    private void toggleRenderer() {
+        canvasMode = !canvasMode;
+        boardStack.getChildren().set(0, canvasMode ? canvasBoard : boardPane);
         updateBoard();
     }
 
@@ -244,7 +451,24 @@ public class DominoGUI extends Application {
     }
 
     private void updateBoard() {
-        boardPane.getChildren().clear();
+        long start = System.nanoTime();
+        DominoEvents.BoardRebuild event = new DominoEvents.BoardRebuild();
+        event.begin();
+        if (canvasMode) {
+            canvasBoard.draw(game, firstClickCoords, cellSize);
+        } else {
+            updateBoardNodes();
+        }
+        if (event.shouldCommit()) {
+            event.renderer = canvasMode ? "canvas" : "nodes";
+            event.cells = game.getMap().getLength() * game.getMap().getWidth();
+            event.nodes = canvasMode ? 1 : boardPane.getChildren().size();
+            event.commit();
+        }
+        perfOverlay.recordBoardUpdate(System.nanoTime() - start);
+    }
+
+    private void updateBoardNodes() {
 
         DominoMap map = game.getMap();
         int length = map.getLength();
@@ -261,89 +485,114 @@ public class DominoGUI extends Application {
         if (startX < 0) startX = 10;
         if (startY < 0) startY = 10;
 
-        for (int y = 0; y < width; y++) {
-            for (int x = 0; x < length; x++) {
-                int value = map.get(x, y);
-                Pane cell = createCell(value, x, y, startX, startY);
-                boardPane.getChildren().add(cell);
-            }
+        if (cellSize != cellFontSize) {
+            cellFont = Font.font("Arial", cellSize * 0.3);
+            cellFontSize = cellSize;
         }
 
-        // Highlight edge points
-        highlightEdgePoints(startX, startY);
-
-        // Show first click position if exists
-        if (firstClickCoords != null) {
-            highlightFirstClick(startX, startY);
+        // Reuse the existing nodes, only adding new ones when the map grew
+        int cells = length * width;
+        while (boardCells.size() < cells) {
+            BoardCell cell = new BoardCell();
+            boardPane.getChildren().add(boardCells.size(), cell.pane);
+            boardCells.add(cell);
         }
-    }
-
-    private Pane createCell(int value, int x, int y, double startX, double startY) {
-        Pane cell = new Pane();
-        cell.setLayoutX(startX + x * cellSize);
-        cell.setLayoutY(startY + y * cellSize);
-        cell.setPrefSize(cellSize, cellSize);
-
-        Rectangle bg = new Rectangle(cellSize, cellSize);
-
-        if (value != -1) {
-            bg.setFill(Color.WHITE);
-            bg.setStroke(Color.BLACK);
 
-            Text text = new Text(String.valueOf(value));
-            text.setFont(Font.font("Arial", cellSize * 0.3));
-            text.setX((cellSize - text.getLayoutBounds().getWidth()) / 2);
-            text.setY(cellSize * 0.6);
-
-            cell.getChildren().addAll(bg, text);
-        } else {
-            bg.setFill(Color.TRANSPARENT);
-            bg.setStroke(Color.GRAY);
-            cell.getChildren().add(bg);
+        for (int i = 0; i < boardCells.size(); i++) {
+            BoardCell cell = boardCells.get(i);
+            if (i < cells) {
+                int x = i % length;
+                int y = i / length;
+                cell.place(x, y, startX + x * cellSize, startY + y * cellSize);
+                cell.show(map.get(x, y));
+            } else {
+                cell.pane.setVisible(false);
+            }
         }
 
-        // Make cells clickable for placing dominoes
-        final int cellX = x;
-        final int cellY = y;
-        cell.setOnMouseClicked(e -> handleCellClick(cellX, cellY));
-
-        return cell;
-    }
-
-    private void highlightEdgePoints(double startX, double startY) {
+        // Highlight edge points
         int[] edge1 = game.getEdgePoint1();
         int[] edge2 = game.getEdgePoint2();
+        placeHighlight(edge1Highlight, edge1[0], edge1[1], startX, startY);
+        placeHighlight(edge2Highlight, edge2[0], edge2[1], startX, startY);
 
-        highlightCell(edge1[0], edge1[1], Color.RED, startX, startY);
-        highlightCell(edge2[0], edge2[1], Color.BLUE, startX, startY);
+        // Show first click position if exists
+        firstClickHighlight.setVisible(firstClickCoords != null);
+        if (firstClickCoords != null) {
+            placeHighlight(firstClickHighlight, firstClickCoords[0], firstClickCoords[1], startX, startY);
+        }
     }
 
-    private void highlightFirstClick(double startX, double startY) {
-        int x = firstClickCoords[0];
-        int y = firstClickCoords[1];
-
+    private Rectangle createHighlight(Color color, double strokeWidth) {
         Rectangle highlight = new Rectangle(cellSize, cellSize);
-        highlight.setLayoutX(startX + x * cellSize);
-        highlight.setLayoutY(startY + y * cellSize);
         highlight.setFill(Color.TRANSPARENT);
-        highlight.setStroke(Color.YELLOW);
-        highlight.setStrokeWidth(3);
-
-        boardPane.getChildren().add(highlight);
+        highlight.setStroke(color);
+        highlight.setStrokeWidth(strokeWidth);
+        highlight.setMouseTransparent(true);
+        return highlight;
     }
 
-    private void highlightCell(int x, int y, Color color, double startX, double startY) {
-        Rectangle highlight = new Rectangle(cellSize, cellSize);
+    private void placeHighlight(Rectangle highlight, int x, int y, double startX, double startY) {
+        highlight.setWidth(cellSize);
+        highlight.setHeight(cellSize);
         highlight.setLayoutX(startX + x * cellSize);
         highlight.setLayoutY(startY + y * cellSize);
-        highlight.setFill(Color.TRANSPARENT);
-        highlight.setStroke(color);
-        highlight.setStrokeWidth(2);
+    }
+
+    // Persistent node for one map cell; it is only touched when its value, position or size changes
+    private class BoardCell {
+        private final Pane pane = new Pane();
+        private final Rectangle bg = new Rectangle();
+        private final Text text = new Text();
+        private int x;
+        private int y;
+        private int shownValue = Integer.MIN_VALUE;
+        private double shownSize = -1;
+
+        BoardCell() {
+            pane.getChildren().addAll(bg, text);
+            pane.setOnMouseClicked(e -> handleCellClick(x, y));
+        }
+
+        void place(int x, int y, double layoutX, double layoutY) {
+            this.x = x;
+            this.y = y;
+            pane.setVisible(true);
+            if (pane.getLayoutX() != layoutX) pane.setLayoutX(layoutX);
+            if (pane.getLayoutY() != layoutY) pane.setLayoutY(layoutY);
+        }
+
+        void show(int value) {
+            if (value == shownValue && cellSize == shownSize)
+                return;
+
+            if (cellSize != shownSize) {
+                pane.setPrefSize(cellSize, cellSize);
+                bg.setWidth(cellSize);
+                bg.setHeight(cellSize);
+                text.setFont(cellFont);
+            }
+
+            if (value != -1) {
+                bg.setFill(Color.WHITE);
+                bg.setStroke(Color.BLACK);
+                text.setText(String.valueOf(value));
+                text.setX((cellSize - text.getLayoutBounds().getWidth()) / 2);
+                text.setY(cellSize * 0.6);
+                text.setVisible(true);
+            } else {
+                bg.setFill(Color.TRANSPARENT);
+                bg.setStroke(Color.GRAY);
+                text.setVisible(false);
+            }
 
-        boardPane.getChildren().add(highlight);
+            shownValue = value;
+            shownSize = cellSize;
+        }
     }
 
     private void updateCurrentPlayerHand() {
+        long start = System.nanoTime();
         currentPlayerHand.getChildren().clear();
 
         // Only show hand if current player is not a bot
@@ -354,6 +603,7 @@ public class DominoGUI extends Application {
                 currentPlayerHand.getChildren().add(dieView);
             }
         }
+        perfOverlay.recordHandUpdate(System.nanoTime() - start);
     }
 
     private VBox createDieView(Die die, int index) {
@@ -470,6 +720,7 @@ public class DominoGUI extends Application {
             game.pullDie(currentPlayer);
             statusLabel.setText((isBot[currentPlayer] ? "Bot " : "Player ") + (currentPlayer + 1) + " drew a die.");
             updateCurrentPlayerHand();
+            autosave();
         } catch (Exception e) {
             statusLabel.setText("Cannot draw die: " + e.getMessage());
         }
@@ -481,6 +732,7 @@ public class DominoGUI extends Application {
         firstClickCoords = null;
 
         currentPlayer = (currentPlayer + 1) % totalPlayers;
+        turns++;
 
         String playerType = isBot[currentPlayer] ? "Bot " : "Player ";
         statusLabel.setText(playerType + (currentPlayer + 1) + "'s Turn");
@@ -488,236 +740,70 @@ public class DominoGUI extends Application {
         updateBoard();
         updateCurrentPlayerHand();
 
-        if (checkGameEnd().isEmpty()) {
+        String gameEnd = checkGameEnd();
+        if (gameEnd.isEmpty()) {
+            autosave();
             if (isBot[currentPlayer])
                 makeBotMove();
-        }else showGameOver(checkGameEnd());
+        } else {
+            deleteAutosave();
+            endGameEvents(!game.handIsEmpty());
+            showGameOver(gameEnd);
+        }
     }
 
     private void makeBotMove() {
         statusLabel.setText("Bot " + (currentPlayer + 1) + " is thinking...");
-
-        // Добавляем задержку перед "обдумыванием"
-        PauseTransition thinkDelay = new PauseTransition(Duration.seconds(1.5));
-        thinkDelay.setOnFinished(e -> {
-            // Логика бота после задержки
-            executeBotLogic();
-        });
-        thinkDelay.play();
+        requestBotTurn(System.nanoTime());
     }
 
-    private void executeBotLogic() {
-        statusLabel.setText("Bot " + (currentPlayer + 1) + " is thinking...");
-        boolean flipped = false;
-            int dieIndex = 0, headX = -1, headY = -1, paddingX = 0, paddingY = 0;
-            int currentValue = 7;
-            int index = 0;
-
-            ArrayList<Die> hand = game.getPlayerHand(currentPlayer);
-            DominoMap map = game.getMap();
-            int[] edge1 = game.getEdgePoint1();
-            int[] edge2 = game.getEdgePoint2();
-            int valueOnEdge1 = map.get(edge1[0], edge1[1]);
-            int valueOnEdge2 = map.get(edge2[0], edge2[1]);
-            int[] edge = new int[2];
-
-            while (currentValue == 7 || headX == -1) {
-                currentValue = 7;
-                for (int i = index; i < hand.size(); i++, index++) {
-                    Die die = hand.get(i);
-                    if (die.getHead() == valueOnEdge1) {
-                        dieIndex = i;
-                        flipped = false;
-                        edge = edge1;
-                        currentValue = die.getTail();
-                        i = hand.size();
-                    } else if (die.getTail() == valueOnEdge1) {
-                        dieIndex = i;
-                        flipped = true;
-                        edge = edge1;
-                        currentValue = die.getHead();
-                        i = hand.size();
-                    } else if (die.getHead() == valueOnEdge2) {
-                        dieIndex = i;
-                        flipped = false;
-                        edge = edge2;
-                        currentValue = die.getTail();
-                        i = hand.size();
-                    } else if (die.getTail() == valueOnEdge2) {
-                        dieIndex = i;
-                        flipped = true;
-                        edge = edge2;
-                        currentValue = die.getHead();
-                        i = hand.size();
-                    }
-                }
-
-                if (currentValue == 7) {
-                    try {
-                        game.pullDie(currentPlayer);
-                        statusLabel.setText("Bot " + (currentPlayer + 1) + " drew a die.");
-                    } catch (Exception ex) {
-                        statusLabel.setText("Bot " + (currentPlayer + 1) + " cannot move and passes.");
-                        nextPlayer();
-                        return;
-                    }
-                }
-
-                if (currentValue != 7) {
-
-                    Random random = new Random();
-                    LinkedHashSet<Integer> set = new LinkedHashSet<>();
-                    while (set.size() < 8){
-                        set.add(random.nextInt(8));
-                    }
-
-                    for (int n : set) {
-                        if (n == 0)
-                            if (game.isPossibleToPlace(currentValue, edge[0] - 2, edge[1]) >= 0) {
-                                if(game.oneAttached(edge[0] - 1, edge[1])) {System.out.println(0);
-                                    if (flipped) {
-                                        headX = edge[0] - 2;
-                                        headY = edge[1];
-                                        paddingX = 1;
-                                        paddingY = 0;
-                                    } else {
-                                        headX = edge[0] - 1;
-                                        headY = edge[1];
-                                        paddingX = -1;
-                                        paddingY = 0;
-                                    }
-                                }
-                            }
-                        if (n == 1)
-                            if (game.isPossibleToPlace(currentValue, edge[0] - 1, edge[1] - 1) >= 0) {
-                                if(game.oneAttached(edge[0] - 1, edge[1])) {System.out.println(1);
-                                    if (flipped) {
-                                        headX = edge[0] - 1;
-                                        headY = edge[1] - 1;
-                                        paddingX = 0;
-                                        paddingY = 1;
-                                    } else {
-                                        headX = edge[0] - 1;
-                                        headY = edge[1];
-                                        paddingX = 0;
-                                        paddingY = -1;
-                                    }
-                                }
-                            }
-                        if (n == 2)
-                            if (game.isPossibleToPlace(currentValue, edge[0], edge[1] - 2) >= 0) {
-                                if(game.oneAttached(edge[0], edge[1] - 1)) {System.out.println(2);
-                                    if (flipped) {
-                                        headX = edge[0];
-                                        headY = edge[1] - 2;
-                                        paddingX = 0;
-                                        paddingY = 1;
-                                    } else {
-                                        headX = edge[0];
-                                        headY = edge[1] - 1;
-                                        paddingX = 0;
-                                        paddingY = -1;
-                                    }
-                                }
-                            }
-                        if (n == 3)
-                            if (game.isPossibleToPlace(currentValue, edge[0] + 1, edge[1] - 1) >= 0) {
-                                if(game.oneAttached(edge[0], edge[1] - 1)) {System.out.println(3);
-                                    if (flipped) {
-                                        headX = edge[0] + 1;
-                                        headY = edge[1] - 1;
-                                        paddingX = -1;
-                                        paddingY = 0;
-                                   } else {
-                                        headX = edge[0];
-                                        headY = edge[1] - 1;
-                                        paddingX = 1;
-                                        paddingY = 0;
-                                    }
-                                }
-                            }
-                        if (n == 4)
-                            if (game.isPossibleToPlace(currentValue, edge[0] + 2, edge[1]) >= 0) {
-                                if(game.oneAttached(edge[0] + 1, edge[1])) {System.out.println(4);
-                                    if (flipped) {
-                                        headX = edge[0] + 2;
-                                        headY = edge[1];
-                                        paddingX = -1;
-                                        paddingY = 0;
-                                    } else {
-                                        headX = edge[0] + 1;
-                                        headY = edge[1];
-                                        paddingX = 1;
-                                        paddingY = 0;
-                                    }
-                                }
-                            }
-                        if (n == 5)
-                            if (game.isPossibleToPlace(currentValue, edge[0] + 1, edge[1] + 1) >= 0) {
-                                if(game.oneAttached(edge[0] + 1, edge[1])) {System.out.println(5);
-                                    if (flipped) {
-                                        headX = edge[0] + 1;
-                                        headY = edge[1] + 1;
-                                        paddingX = 0;
-                                        paddingY = -1;
-                                    } else {
-                                        headX = edge[0] + 1;
-                                        headY = edge[1];
-                                        paddingX = 0;
-                                        paddingY = 1;
-                                    }
-                                }
-                            }
-                        if (n == 6)
-                            if (game.isPossibleToPlace(currentValue, edge[0], edge[1] + 2) >= 0) {
-                                if(game.oneAttached(edge[0], edge[1] + 1)) {System.out.println(6);
-                                    if (flipped) {
-                                        headX = edge[0];
-                                        headY = edge[1] + 2;
-                                        paddingX = 0;
-                                        paddingY = -1;
-                                    } else {
-                                        headX = edge[0];
-                                        headY = edge[1] + 1;
-                                        paddingX = 0;
-                                        paddingY = 1;
-                                    }
-                                }
-                            }
-                        if (n == 7)
-                            if (game.isPossibleToPlace(currentValue, edge[0] - 1, edge[1] + 1) >= 0) {
-                                if(game.oneAttached(edge[0], edge[1] + 1)) {System.out.println(7);
-                                    if (flipped) {
-                                        headX = edge[0] - 1;
-                                        headY = edge[1] + 1;
-                                        paddingX = 1;
-                                        paddingY = 0;
-                                    } else {
-                                        headX = edge[0];
-                                        headY = edge[1] + 1;
-                                        paddingX = -1;
-                                        paddingY = 0;
-                                    }
-                                }
-                            }
-                    }
-                    if (index == hand.size() - 1 && headX == -1) {
-                        try {
-                            game.pullDie(currentPlayer);
-                            statusLabel.setText("Bot " + (currentPlayer + 1) + " drew a die.");
-                        } catch (Exception ex) {
-                            statusLabel.setText("Bot " + (currentPlayer + 1) + " cannot move and passes.");
-                            nextPlayer();
-                            return;
-                        }
-                    }
-                }
+    // The bot thinks in the background; its turn is shown no sooner than the usual delay
+    private void requestBotTurn(long thinkStart) {
+        botService.requestTurn(game, currentPlayer, bot, turn -> {
+            perfOverlay.recordBotThink(turn.getThinkNanos());
+            long remaining = BOT_DELAY_NANOS - (System.nanoTime() - thinkStart);
+            if (remaining <= 0) {
+                applyBotTurn(turn);
+                return;
             }
+            // Добавляем задержку перед "обдумыванием"
+            PauseTransition thinkDelay = new PauseTransition(Duration.millis(remaining / 1e6));
+            long generation = gameGeneration;
+            thinkDelay.setOnFinished(e -> {
+                if (generation == gameGeneration)
+                    applyBotTurn(turn);
+            });
+            thinkDelay.play();
+        }, this::botFailed);
+    }
+
+    // The bot stays stopped on its turn; passing for it would be an illegal move
+    private void botFailed(RuntimeException e) {
+        botService.cancel();
+        System.err.println("Bot " + (currentPlayer + 1) + " failed: " + e);
+        statusLabel.setText("Bot " + (currentPlayer + 1) + " failed and was stopped: " + e.getMessage());
+    }
 
-            game.makeMove(currentPlayer, dieIndex, headX, headY, paddingX, paddingY);
-            statusLabel.setText("Bot " + (currentPlayer + 1) + " placed a die!");
-            updateDisplay();
-            nextPlayer();
+    private void applyBotTurn(BotService.BotTurn turn) {
+        switch (turn.getKind()) {
+            case DRAW:
+                game.pullDie(currentPlayer);
+                statusLabel.setText("Bot " + (currentPlayer + 1) + " drew a die.");
+                autosave();
+                requestBotTurn(System.nanoTime() - BOT_DELAY_NANOS);
+                break;
+            case PASS:
+                statusLabel.setText("Bot " + (currentPlayer + 1) + " cannot move and passes.");
+                nextPlayer();
+                break;
+            case PLACE:
+                int[] move = turn.getMove();
+                game.makeMove(currentPlayer, move[0], move[1], move[2], move[3], move[4]);
+                statusLabel.setText("Bot " + (currentPlayer + 1) + " placed a die!");
+                updateDisplay();
+                nextPlayer();
+                break;
+        }
     }
 
     private String checkGameEnd() {
@@ -756,6 +842,8 @@ public class DominoGUI extends Application {
     }
 
     private void restartGame() {
+        botService.cancel();
+        gameGeneration++;
         Stage currentStage = (Stage) root.getScene().getWindow();
         currentStage.close();
 
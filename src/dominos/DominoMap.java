@@ -0,0 +1,63 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+
+// The board. Cells are addressed in view coordinates: (0, 0) is the top left of a rectangle of
+// getLength() x getWidth() cells that keeps two empty rows and columns around the occupied ones.
+// Empty cells read as -1. DenseDominoMap stores the whole rectangle, SparseDominoMap only the
+// occupied cells.
+public interface DominoMap {
+
+    int get(int x, int y);
+
+    int getLength();
+
+    int getWidth();
+
+    // Total padding applied since startMap, so (x - shiftX, y - shiftY) never moves
+    int getShiftX();
+
+    int getShiftY();
+
+    // Bounding box of occupied cells in view coordinates
+    int getMinOccupiedX();
+
+    int getMinOccupiedY();
+
+    int getMaxOccupiedX();
+
+    int getMaxOccupiedY();
+
+    void set(int v, int x, int y);
+
+    // Remembers the current bounds so popMark can take back the growth of the following extendMap calls
+    void pushMark();
+
+    // Restores the bounds and coordinates saved by the matching pushMark. Cells written since
+    // then keep their values and have to be cleared by the caller (in the restored coordinates).
+    void popMark();
+
+    void clearMarks();
+
+    // An empty map of the same representation
+    DominoMap newEmpty();
+
+    // Makes this map identical to the other one, which has to be of the same representation
+    void copyFrom(DominoMap other);
+
+    // Bytes writeTo needs for the current map
+    int snapshotSize();
+
+    // Stores the bounds and the occupied cells in row order, so the size grows with the tiles
+    // played rather than the board area; the format is the same for every representation
+    void writeTo(ByteBuffer buffer);
+
+    void readFrom(ByteBuffer buffer);
+
+    // Places the first die upright at (2, 2) and (2, 3) of a 5 x 6 view
+    void startMap(Die die);
+
+    // Keeps two empty rows and columns around the occupied cells.
+    // Returns how far existing coordinates moved right and down; the array is reused by the next call.
+    int[] extendMap();
+}
@@ -0,0 +1,67 @@
+package dominos;
+
+// Size of a game: the highest pip of the set (double-six has 28 tiles, double-eighteen 190)
+// and how many tiles every player is dealt.
+public final class GameConfig {
+
+    public static final GameConfig DOUBLE_SIX = new GameConfig(6, 7);
+    // limited by Zobrist keys and the 4-bit player field of game records
+    public static final int MAX_PLAYERS = 16;
+
+    private final int maxPip;
+    private final int handSize;
+
+    public GameConfig(int maxPip, int handSize) {
+        if (maxPip < 1 || maxPip > Tiles.MAX_PIP)
+            throw new IllegalArgumentException("max pip must be 1-" + Tiles.MAX_PIP + ": " + maxPip);
+        if (handSize < 1)
+            throw new IllegalArgumentException("hand size must be positive: " + handSize);
+        this.maxPip = maxPip;
+        this.handSize = handSize;
+    }
+
+    // The usual hand for the set, cut down so every player can be dealt one
+    public static GameConfig standard(int maxPip, int playersAmount) {
+        return new GameConfig(maxPip, Math.max(1, Math.min(maxPip + 1, Tiles.count(maxPip) / playersAmount)));
+    }
+
+    public int getMaxPip() {
+        return maxPip;
+    }
+
+    public int getHandSize() {
+        return handSize;
+    }
+
+    public int getTileCount() {
+        return Tiles.count(maxPip);
+    }
+
+    // Tile masks (Tiles.mask, GameState, OpenEndSolver) only hold sets of up to 64 tiles, i.e. up to double-nine
+    public boolean fitsMask() {
+        return getTileCount() <= Tiles.MASK_TILES;
+    }
+
+    public void checkPlayers(int playersAmount) {
+        if (playersAmount < 1 || playersAmount > MAX_PLAYERS)
+            throw new IllegalArgumentException("1-" + MAX_PLAYERS + " players supported");
+        if (playersAmount * handSize > getTileCount())
+            throw new IllegalArgumentException(playersAmount + " hands of " + handSize +
+                    " need more than the " + getTileCount() + " tiles of double-" + maxPip);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameConfig other && other.maxPip == maxPip && other.handSize == handSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return maxPip * 256 + handSize;
+    }
+
+    @Override
+    public String toString() {
+        return "double-" + maxPip + ", " + handSize + " per hand";
+    }
+}
@@ -0,0 +1,141 @@
+package dominos;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+// Plays complete games without any UI, one strategy per seat
+public class GameEngine {
+
+    private final GameConfig config;
+    private final PlayerStrategy[] players;
+    private final MoveBuffer moves = new MoveBuffer();
+    private GameRecorder recorder;
+    private Supplier<DominoMap> maps = DenseDominoMap::new;
+
+    public GameEngine(PlayerStrategy... players) {
+        this(GameConfig.DOUBLE_SIX, players);
+    }
+
+    public GameEngine(GameConfig config, PlayerStrategy... players) {
+        config.checkPlayers(players.length);
+        this.config = config;
+        this.players = players;
+    }
+
+    // Board representation of the following games
+    public void setMaps(Supplier<DominoMap> maps) {
+        this.maps = maps;
+    }
+
+    // Records every following game, null to stop recording
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public GameResult playGame() {
+        return playGame(new SplittableRandom());
+    }
+
+    public GameResult playGame(long seed) {
+        return playGame(new SplittableRandom(seed), seed, -1, List.of());
+    }
+
+    // Deals the hand to the player and everything else at random
+    public GameResult playGame(long seed, int player, List<Die> hand) {
+        return playGame(new SplittableRandom(seed), seed, player, hand);
+    }
+
+    // The seed is unknown here, recorded games store 0
+    public GameResult playGame(RandomGenerator random) {
+        return playGame(random, 0, -1, List.of());
+    }
+
+    private GameResult playGame(RandomGenerator random, long seed, int player, List<Die> hand) {
+        DominoEvents.GameEnd end = new DominoEvents.GameEnd();
+        end.begin();
+        Domino game = new Domino(players.length, config, random, maps.get());
+        game.generateDieSet();
+        game.makeHands(player, hand);
+        if (recorder != null)
+            recorder.begin(seed, game);
+        int starter = game.startMap();
+        if (recorder != null) {
+            DominoMap map = game.getMap();
+            recorder.start(starter, Tiles.die(map.get(2, 2), map.get(2, 3)));
+        }
+        DominoEvents.GameStart start = new DominoEvents.GameStart();
+        if (start.shouldCommit()) {
+            start.players = players.length;
+            start.starter = starter;
+            start.seed = seed;
+            start.commit();
+        }
+
+        int current = starter;
+        int turns = 0;
+        int passesInRow = 0;
+        boolean fish = false;
+
+        while (!game.handIsEmpty()) {
+            if (game.fishHappens()) {
+                fish = true;
+                break;
+            }
+            current = (current + 1) % players.length;
+            turns++;
+
+            if (playTurn(game, current)) {
+                passesInRow = 0;
+            } else if (++passesInRow == players.length) {
+                // nobody can fit a die anywhere even though matching pips are left
+                fish = true;
+                break;
+            }
+        }
+
+        int[] scores = new int[players.length];
+        for (int i = 0; i < scores.length; i++)
+            scores[i] = game.countScore(i);
+        if (recorder != null)
+            recorder.end(scores);
+        GameResult result = new GameResult(scores, starter, turns, fish);
+        if (end.shouldCommit()) {
+            end.players = players.length;
+            end.turns = turns;
+            end.fish = fish;
+            end.winner = result.getWinner();
+            end.commit();
+        }
+        return result;
+    }
+
+    // Returns false if the player had to pass
+    public boolean playTurn(Domino game, int player) {
+        while (game.generateMoves(player, moves) == 0) {
+            if (game.getPoolSize() == 0) {
+                if (recorder != null)
+                    recorder.pass(player);
+                return false;
+            }
+            game.pullDie(player);
+            if (recorder != null)
+                recorder.draw(player, game.getPlayerHand(player).getLast());
+        }
+        DominoEvents.BotDecision decision = new DominoEvents.BotDecision();
+        decision.begin();
+        int choice = players[player].chooseMove(game, player, moves);
+        if (decision.shouldCommit()) {
+            decision.strategy = players[player].getClass().getSimpleName();
+            decision.player = player;
+            decision.candidates = moves.size();
+            decision.commit();
+        }
+        if (recorder != null)
+            recorder.place(player, game.getPlayerHand(player).get(moves.getDieIndex(choice)),
+                    moves.getHeadX(choice), moves.getHeadY(choice), moves.getOrientation(choice));
+        game.makeMove(player, moves, choice);
+        return true;
+    }
+}
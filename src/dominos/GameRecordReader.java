@@ -0,0 +1,205 @@
+package dominos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Scans a file written by GameRecordWriter through a memory-mapped window that slides over
+// the file, so files larger than one mapping can be read. next() decodes the following record
+// into reused arrays, the getters describe the current record. A record that overruns its
+// frame or holds a player count, tile or seat no game can have is an IOException.
+public class GameRecordReader implements Closeable {
+
+    private static final long WINDOW = 256L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private long seed;
+    private int playersAmount;
+    private int maxPip;
+    private int[][] hands = new int[0][];
+    private int starter;
+    private int startTile;
+    private int moveCount;
+    private int[] moveHeader = new int[64];
+    private int[] moveTile = new int[64];
+    private int[] moveX = new int[64];
+    private int[] moveY = new int[64];
+    private int[] scores = new int[0];
+
+    public GameRecordReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        map(0);
+        if (size < 4 || window.getInt() != GameRecordWriter.MAGIC)
+            throw new IOException("not a game record file: " + path);
+    }
+
+    public boolean next() throws IOException {
+        long position = windowStart + window.position();
+        if (position + 2 > size)
+            return false;
+        if (window.remaining() < 2)
+            map(position);
+        int length = window.getShort() & 0xFFFF;
+        if (window.remaining() < length) {
+            map(position);
+            window.position(2);
+        }
+        if (window.remaining() < length)
+            throw new IOException("truncated record at " + position);
+
+        // the record must fill its frame exactly, so a bad length cannot shift every later record
+        int end = window.position() + length;
+        int limit = window.limit();
+        window.limit(end);
+        try {
+            decode();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("record at " + position + " overruns its length " + length, e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("bad record at " + position + ": " + e.getMessage(), e);
+        } finally {
+            window.limit(limit);
+        }
+        if (window.position() != end)
+            throw new IOException("record at " + position + " leaves " + (end - window.position())
+                    + " of its " + length + " bytes unread");
+        return true;
+    }
+
+    // Throws IllegalArgumentException for values no recorded game can have
+    private void decode() {
+        seed = window.getLong();
+        playersAmount = window.get();
+        maxPip = window.get();
+        GameConfig config = new GameConfig(maxPip, 1);
+        config.checkPlayers(playersAmount);
+        int tiles = config.getTileCount();
+        if (hands.length != playersAmount) {
+            hands = new int[playersAmount][];
+            scores = new int[playersAmount];
+        }
+        for (int p = 0; p < playersAmount; p++) {
+            int handSize = window.get() & 0xFF;
+            if (hands[p] == null || hands[p].length != handSize)
+                hands[p] = new int[handSize];
+            for (int i = 0; i < handSize; i++)
+                hands[p][i] = tile(tiles);
+        }
+        starter = window.get();
+        if (starter < 0 || starter >= playersAmount)
+            throw new IllegalArgumentException("starter " + starter + " of " + playersAmount + " players");
+        startTile = tile(tiles);
+
+        moveCount = window.getShort() & 0xFFFF;
+        if (moveHeader.length < moveCount) {
+            int capacity = Math.max(moveCount, moveHeader.length * 2);
+            moveHeader = new int[capacity];
+            moveTile = new int[capacity];
+            moveX = new int[capacity];
+            moveY = new int[capacity];
+        }
+        for (int i = 0; i < moveCount; i++) {
+            int header = window.get() & 0xFF;
+            if (header >>> 4 >= playersAmount || (header & 3) > GameRecorder.PASS)
+                throw new IllegalArgumentException("move " + i + " has header " + header);
+            moveHeader[i] = header;
+            moveTile[i] = -1;
+            int kind = header & 3;
+            if (kind == GameRecorder.PLACE) {
+                moveTile[i] = tile(tiles);
+                moveX[i] = window.getShort() & 0xFFFF;
+                moveY[i] = window.getShort() & 0xFFFF;
+            } else if (kind == GameRecorder.DRAW) {
+                moveTile[i] = tile(tiles);
+            }
+        }
+        for (int p = 0; p < playersAmount; p++)
+            scores[p] = window.getShort() & 0xFFFF;
+    }
+
+    private int tile(int tiles) {
+        int tile = window.get() & 0xFF;
+        if (tile >= tiles)
+            throw new IllegalArgumentException("tile " + tile + " of a set of " + tiles);
+        return tile;
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPlayersAmount() {
+        return playersAmount;
+    }
+
+    // The game was played with the double-maxPip set
+    public int getMaxPip() {
+        return maxPip;
+    }
+
+    // Tile indices (see Tiles) dealt to the player
+    public int[] getDeal(int player) {
+        return hands[player];
+    }
+
+    public int getStarter() {
+        return starter;
+    }
+
+    public int getStartTile() {
+        return startTile;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    // GameRecorder.PLACE, DRAW or PASS
+    public int getMoveKind(int i) {
+        return moveHeader[i] & 3;
+    }
+
+    public int getMovePlayer(int i) {
+        return moveHeader[i] >>> 4;
+    }
+
+    public int getMoveOrientation(int i) {
+        return moveHeader[i] >>> 2 & 3;
+    }
+
+    // Placed or drawn tile, -1 for a pass
+    public int getMoveTile(int i) {
+        return moveTile[i];
+    }
+
+    public int getMoveHeadX(int i) {
+        return moveX[i];
+    }
+
+    public int getMoveHeadY(int i) {
+        return moveY[i];
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
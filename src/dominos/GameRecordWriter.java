@@ -0,0 +1,66 @@
+package dominos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends finished game records to a file. Records are collected in one large buffer and
+// written with a single channel write when it fills up, so many threads can share a writer
+// without each game turning into a system call.
+//
+// File layout: int MAGIC, then records of [u16 body length][body], see GameRecorder for the body.
+public class GameRecordWriter implements Closeable {
+
+    public static final int MAGIC = 0x44475232; // "DGR2"
+    private static final int BATCH_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE);
+    private long records;
+
+    public GameRecordWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        batch.putInt(MAGIC);
+    }
+
+    // Appends the record between position and limit of the body
+    public synchronized void append(ByteBuffer body) {
+        if (body.remaining() > 0xFFFF)
+            throw new IllegalArgumentException("record too long: " + body.remaining());
+        if (batch.remaining() < body.remaining() + 2)
+            writeBatch();
+        batch.putShort((short) body.remaining());
+        batch.put(body);
+        records++;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public synchronized void flush() {
+        writeBatch();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writeBatch();
+        channel.close();
+    }
+
+    private void writeBatch() {
+        batch.flip();
+        try {
+            while (batch.hasRemaining())
+                channel.write(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+// Encodes the game an engine is playing into one binary record and hands it to a writer when
+// the game ends. One recorder per engine; the writer may be shared.
+//
+// Record body:
+//   long seed, u8 players, u8 max pip of the set, per player: u8 hand size + u8 tile per die (the deal),
+//   u8 starting player, u8 starting tile, u16 move count, moves, u16 score per player.
+// A move starts with a byte: kind in bits 0-1, orientation in bits 2-3, player in bits 4-7.
+//   PLACE: u8 tile, u16 head x, u16 head y    DRAW: u8 tile    PASS: nothing else
+public class GameRecorder {
+
+    public static final int PLACE = 0;
+    public static final int DRAW = 1;
+    public static final int PASS = 2;
+
+    private final GameRecordWriter writer;
+    private ByteBuffer body = ByteBuffer.allocate(1024);
+    private int moveCountPosition;
+    private int moves;
+
+    public GameRecorder(GameRecordWriter writer) {
+        this.writer = writer;
+    }
+
+    // Called after the deal
+    public void begin(long seed, Domino game) {
+        body.clear();
+        moves = 0;
+        body.putLong(seed);
+        body.put((byte) game.getPlayersAmount());
+        body.put((byte) game.getConfig().getMaxPip());
+        for (int p = 0; p < game.getPlayersAmount(); p++) {
+            ArrayList<Die> hand = game.getPlayerHand(p);
+            ensure(1 + hand.size());
+            body.put((byte) hand.size());
+            for (Die die : hand)
+                body.put((byte) Tiles.index(die));
+        }
+    }
+
+    public void start(int starter, Die die) {
+        ensure(4);
+        body.put((byte) starter);
+        body.put((byte) Tiles.index(die));
+        moveCountPosition = body.position();
+        body.putShort((short) 0);
+    }
+
+    public void place(int player, Die die, int headX, int headY, int orientation) {
+        ensure(6);
+        body.put((byte) (PLACE | orientation << 2 | player << 4));
+        body.put((byte) Tiles.index(die));
+        body.putShort((short) headX);
+        body.putShort((short) headY);
+        moves++;
+    }
+
+    public void draw(int player, Die die) {
+        ensure(2);
+        body.put((byte) (DRAW | player << 4));
+        body.put((byte) Tiles.index(die));
+        moves++;
+    }
+
+    public void pass(int player) {
+        ensure(1);
+        body.put((byte) (PASS | player << 4));
+        moves++;
+    }
+
+    public void end(int[] scores) {
+        ensure(2 * scores.length);
+        body.putShort(moveCountPosition, (short) moves);
+        for (int score : scores)
+            body.putShort((short) score);
+        body.flip();
+        writer.append(body);
+    }
+
+    private void ensure(int bytes) {
+        if (body.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(body.capacity() * 2);
+            body.flip();
+            larger.put(body);
+            body = larger;
+        }
+    }
+}
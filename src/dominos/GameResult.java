@@ -0,0 +1,51 @@
+package dominos;
+
+public class GameResult {
+    private final int[] scores;
+    private final int starter;
+    private final int turns;
+    private final boolean fish;
+
+    public GameResult(int[] scores, int starter, int turns, boolean fish) {
+        this.scores = scores;
+        this.starter = starter;
+        this.turns = turns;
+        this.fish = fish;
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public int getPlayersAmount() {
+        return scores.length;
+    }
+
+    // Player that placed the starting die
+    public int getStarter() {
+        return starter;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public boolean isFish() {
+        return fish;
+    }
+
+    // Lowest score wins, -1 on a tie
+    public int getWinner() {
+        int winner = 0;
+        boolean tie = false;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] < scores[winner]) {
+                winner = i;
+                tie = false;
+            } else if (scores[i] == scores[winner]) {
+                tie = true;
+            }
+        }
+        return tie ? -1 : winner;
+    }
+}
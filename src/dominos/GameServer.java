@@ -0,0 +1,433 @@
+package dominos;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+// Headless server hosting any number of tables on one non-blocking selector thread.
+// Players JOIN a table size and tile set and are seated at the next such table; a table starts
+// when it is full. GameTable referees the game, and after every accepted action each seat gets a
+// STATE with its own view of the game. See Protocol for the messages.
+public class GameServer {
+
+    // client frames are a few bytes; the output grows up to the limit for slow readers
+    private static final int INPUT_SIZE = 1 << 10;
+    private static final int OUTPUT_SIZE = 1 << 12;
+    private static final int MAX_OUTPUT_SIZE = 1 << 20;
+    private static final long REPORT_NANOS = 5_000_000_000L;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    // the table still filling up for each size and tile set, see waitingKey
+    private final HashMap<Integer, Table> waiting = new HashMap<>();
+    private final ArrayList<Connection> dirty = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private int nextTableId;
+
+    // run() prints tables, games and action rates every REPORT_NANOS when set
+    private boolean reporting;
+    private int activeTables;
+    private long actions;
+    private long placements;
+    private long games;
+
+    public GameServer(int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public void setReporting(boolean reporting) {
+        this.reporting = reporting;
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public void run() throws IOException {
+        long lastReport = System.nanoTime();
+        long lastActions = 0;
+        long lastPlacements = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid())
+                    continue;
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                if (key.isReadable())
+                    read(connection);
+                if (key.isValid() && key.isWritable())
+                    flush(connection);
+            }
+            // replies of this round go out together
+            for (Connection connection : dirty) {
+                connection.dirty = false;
+                if (connection.key.isValid())
+                    flush(connection);
+            }
+            dirty.clear();
+
+            long now = System.nanoTime();
+            if (reporting && now - lastReport >= REPORT_NANOS) {
+                double seconds = (now - lastReport) / 1e9;
+                System.out.printf("%d tables, %d games, %.0f actions/s, %.0f moves/s%n", activeTables, games,
+                        (actions - lastActions) / seconds, (placements - lastPlacements) / seconds);
+                lastReport = now;
+                lastActions = actions;
+                lastPlacements = placements;
+            }
+        }
+        selector.close();
+        server.close();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(connection);
+            return;
+        }
+
+        ByteBuffer in = connection.in.flip();
+        int length;
+        while (connection.key.isValid() && (length = Protocol.completeFrame(in)) >= 0) {
+            int end = in.position() + 2 + length;
+            in.position(in.position() + 2);
+            if (length == 0) {
+                error(connection, Protocol.BAD_MESSAGE);
+            } else {
+                // handlers see this frame's payload only and cannot read into the next frame
+                int limit = in.limit();
+                in.limit(end);
+                try {
+                    handle(connection, in.get() & 0xFF, in);
+                } catch (RuntimeException e) {
+                    // a payload shorter than its type needs
+                    error(connection, Protocol.BAD_MESSAGE);
+                } finally {
+                    in.limit(limit);
+                }
+            }
+            in.position(end);
+        }
+        in.compact();
+        // a frame that can never fit
+        if (!in.hasRemaining())
+            disconnect(connection);
+    }
+
+    private void handle(Connection connection, int type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.JOIN -> join(connection, payload);
+            case Protocol.MOVE -> {
+                if (sized(connection, payload, 6))
+                    move(connection, payload.get() & 0xFF, payload.getShort() & 0xFFFF,
+                            payload.getShort() & 0xFFFF, payload.get());
+            }
+            case Protocol.DRAW -> {
+                if (sized(connection, payload, 0))
+                    draw(connection);
+            }
+            case Protocol.PASS -> {
+                if (sized(connection, payload, 0))
+                    pass(connection);
+            }
+            default -> error(connection, Protocol.BAD_MESSAGE);
+        }
+    }
+
+    // A fixed size message with a payload of any other length is a bad message
+    private boolean sized(Connection connection, ByteBuffer payload, int length) {
+        if (payload.remaining() == length)
+            return true;
+        error(connection, Protocol.BAD_MESSAGE);
+        return false;
+    }
+
+    private void join(Connection connection, ByteBuffer payload) {
+        // players alone picks double-six, players, max pip and hand size pick the set
+        int length = payload.remaining();
+        int players = length > 0 ? payload.get() : 0;
+        GameConfig config = null;
+        try {
+            if (length == 1)
+                config = GameConfig.DOUBLE_SIX;
+            else if (length == 3)
+                config = new GameConfig(payload.get(), payload.get() & 0xFF);
+            if (config != null)
+                config.checkPlayers(players);
+        } catch (IllegalArgumentException e) {
+            config = null;
+        }
+        if (connection.table != null || config == null) {
+            error(connection, Protocol.BAD_MESSAGE);
+            return;
+        }
+        int key = waitingKey(players, config);
+        Table table = waiting.get(key);
+        if (table == null) {
+            table = new Table(nextTableId++, players, config);
+            waiting.put(key, table);
+        }
+        connection.table = table;
+        connection.seat = table.seated;
+        table.seats[table.seated++] = connection;
+
+        ByteBuffer out = output(connection, 9);
+        if (out != null) {
+            int start = Protocol.beginFrame(out, Protocol.JOINED);
+            out.putInt(table.id).put((byte) connection.seat).put((byte) players);
+            Protocol.endFrame(out, start);
+        }
+
+        if (table.seated == players) {
+            waiting.remove(key);
+            start(table);
+        }
+    }
+
+    private static int waitingKey(int players, GameConfig config) {
+        return players << 16 | config.getMaxPip() << 8 | config.getHandSize();
+    }
+
+    private void start(Table table) {
+        table.rules = new GameTable(table.playersAmount, table.config, random.split());
+        activeTables++;
+        broadcastState(table);
+    }
+
+    private void move(Connection connection, int dieIndex, int headX, int headY, int orientation) {
+        Table table = runningTable(connection);
+        if (table != null && accepted(connection, table.rules.move(connection.seat, dieIndex, headX, headY, orientation))) {
+            placements++;
+            endAction(table);
+        }
+    }
+
+    private void draw(Connection connection) {
+        Table table = runningTable(connection);
+        if (table != null && accepted(connection, table.rules.draw(connection.seat)))
+            endAction(table);
+    }
+
+    private void pass(Connection connection) {
+        Table table = runningTable(connection);
+        if (table != null && accepted(connection, table.rules.pass(connection.seat)))
+            endAction(table);
+    }
+
+    private Table runningTable(Connection connection) {
+        Table table = connection.table;
+        if (table == null || table.rules == null) {
+            error(connection, Protocol.NOT_SEATED);
+            return null;
+        }
+        return table;
+    }
+
+    private boolean accepted(Connection connection, int result) {
+        if (result != GameTable.OK)
+            error(connection, result);
+        return result == GameTable.OK;
+    }
+
+    private void endAction(Table table) {
+        actions++;
+        if (table.rules.isOver())
+            finish(table);
+        else
+            broadcastState(table);
+    }
+
+    private void broadcastState(Table table) {
+        Domino game = table.rules.getGame();
+        int size = 5 + game.snapshotSize();
+        if (size - 2 > Protocol.MAX_FRAME) {
+            // no frame can carry the view; the players get the scores as they stand
+            finish(table);
+            return;
+        }
+        for (Connection seat : table.seats) {
+            // a dropped seat may have ended the game on the way
+            if (table.over)
+                return;
+            ByteBuffer out = seat == null ? null : output(seat, size);
+            if (out == null)
+                continue;
+            int start = Protocol.beginFrame(out, Protocol.STATE);
+            out.put((byte) table.rules.getCurrentPlayer()).put((byte) seat.seat);
+            game.writeView(out, seat.seat);
+            Protocol.endFrame(out, start);
+        }
+    }
+
+    // Sends the scores and frees the seats; the players may JOIN again
+    private void finish(Table table) {
+        table.over = true;
+        table.rules.abandon();
+        activeTables--;
+        games++;
+        for (Connection seat : table.seats) {
+            if (seat == null)
+                continue;
+            seat.table = null;
+            ByteBuffer out = output(seat, 4 + 2 * table.playersAmount);
+            if (out == null)
+                continue;
+            int start = Protocol.beginFrame(out, Protocol.GAME_OVER);
+            out.put((byte) table.playersAmount);
+            for (int i = 0; i < table.playersAmount; i++)
+                out.putShort((short) table.rules.getGame().countScore(i));
+            Protocol.endFrame(out, start);
+        }
+    }
+
+    private void error(Connection connection, int code) {
+        ByteBuffer out = output(connection, 4);
+        if (out != null) {
+            int start = Protocol.beginFrame(out, Protocol.ERROR);
+            out.put((byte) code);
+            Protocol.endFrame(out, start);
+        }
+    }
+
+    // The output buffer with room for the frame, or null if the client does not keep up and was dropped
+    private ByteBuffer output(Connection connection, int bytes) {
+        if (!connection.key.isValid())
+            return null;
+        if (connection.out.remaining() < bytes)
+            flush(connection);
+        if (connection.out.remaining() < bytes) {
+            int capacity = connection.out.capacity();
+            while (capacity - connection.out.position() < bytes)
+                capacity *= 2;
+            if (capacity > MAX_OUTPUT_SIZE) {
+                disconnect(connection);
+                return null;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            connection.out = larger.put(connection.out.flip());
+        }
+        if (!connection.dirty) {
+            connection.dirty = true;
+            dirty.add(connection);
+        }
+        return connection.out;
+    }
+
+    private void flush(Connection connection) {
+        ByteBuffer out = connection.out.flip();
+        try {
+            connection.channel.write(out);
+        } catch (IOException e) {
+            out.clear();
+            disconnect(connection);
+            return;
+        }
+        out.compact();
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (connection.key.interestOps() != ops)
+            connection.key.interestOps(ops);
+    }
+
+    private void disconnect(Connection connection) {
+        if (!connection.key.isValid())
+            return;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+
+        Table table = connection.table;
+        connection.table = null;
+        if (table == null)
+            return;
+        table.seats[connection.seat] = null;
+        if (table.rules != null) {
+            // the others get the scores as they stand
+            finish(table);
+            return;
+        }
+        // still waiting for players: close the gap
+        for (int i = connection.seat; i < table.seated - 1; i++) {
+            table.seats[i] = table.seats[i + 1];
+            table.seats[i].seat = i;
+        }
+        table.seats[--table.seated] = null;
+    }
+
+    private static class Table {
+        final int id;
+        final int playersAmount;
+        final GameConfig config;
+        final Connection[] seats;
+        int seated;
+        GameTable rules;
+        boolean over;
+
+        Table(int id, int playersAmount, GameConfig config) {
+            this.id = id;
+            this.playersAmount = playersAmount;
+            this.config = config;
+            this.seats = new Connection[playersAmount];
+        }
+    }
+
+    private static class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(INPUT_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(OUTPUT_SIZE);
+        Table table;
+        int seat;
+        boolean dirty;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    // usage: GameServer [port]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        GameServer server = new GameServer(port);
+        server.setReporting(true);
+        System.out.println("Listening on port " + server.getPort());
+        server.run();
+    }
+}
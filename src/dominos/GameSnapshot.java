@@ -0,0 +1,96 @@
+package dominos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+// A game in progress together with whose turn it is and which seats are bots.
+// Binary form: int MAGIC, u8 players, u8 current player, u8 per seat (1 for a bot),
+// then Domino.writeSnapshot.
+public class GameSnapshot {
+
+    private static final int MAGIC = 0x44475331; // "DGS1"
+
+    private final Domino game;
+    private final int currentPlayer;
+    private final boolean[] isBot;
+
+    public GameSnapshot(Domino game, int currentPlayer, boolean[] isBot) {
+        this.game = game;
+        this.currentPlayer = currentPlayer;
+        this.isBot = isBot;
+    }
+
+    public Domino getGame() {
+        return game;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean[] getIsBot() {
+        return isBot;
+    }
+
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + isBot.length + game.snapshotSize());
+        buffer.putInt(MAGIC);
+        buffer.put((byte) isBot.length);
+        buffer.put((byte) currentPlayer);
+        for (boolean bot : isBot)
+            buffer.put((byte) (bot ? 1 : 0));
+        game.writeSnapshot(buffer);
+        return buffer.flip();
+    }
+
+    // The restored game draws from a fresh random generator. Throws IOException when the seats
+    // or the current player do not fit the restored game.
+    public static GameSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("not a game snapshot");
+        int playersAmount = buffer.get();
+        int currentPlayer = buffer.get();
+        if (playersAmount < 1)
+            throw new IOException("bad player count " + playersAmount);
+        boolean[] isBot = new boolean[playersAmount];
+        for (int i = 0; i < playersAmount; i++)
+            isBot[i] = buffer.get() != 0;
+        Domino game = Domino.restore(buffer, new SplittableRandom());
+        if (game.getPlayersAmount() != playersAmount)
+            throw new IOException(playersAmount + " seats for a game of " + game.getPlayersAmount() + " players");
+        if (currentPlayer < 0 || currentPlayer >= playersAmount)
+            throw new IOException("current player " + currentPlayer + " out of range");
+        return new GameSnapshot(game, currentPlayer, isBot);
+    }
+
+    // Written to a temporary file first, so a crash never leaves a half written snapshot behind
+    public void save(Path path) throws IOException {
+        write(path, encode());
+    }
+
+    // Saves bytes from encode(), which may have been taken on another thread
+    public static void write(Path path, ByteBuffer buffer) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static GameSnapshot load(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            return decode(buffer);
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("corrupt snapshot " + path, e);
+        }
+    }
+}
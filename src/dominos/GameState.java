@@ -0,0 +1,109 @@
+package dominos;
+
+// Compact copy of a game for search and simulation: hands and pool are tile masks (see Tiles),
+// the board is reduced to the values on its two open ends.
+public class GameState {
+
+    private final long[] hands;
+    private long pool;
+    private int end1;
+    private int end2;
+
+    public GameState(long[] hands, long pool, int end1, int end2) {
+        this.hands = hands;
+        this.pool = pool;
+        this.end1 = end1;
+        this.end2 = end2;
+    }
+
+    public GameState(GameState other) {
+        this(other.hands.clone(), other.pool, other.end1, other.end2);
+    }
+
+    // Only for sets that fit a mask, see GameConfig.fitsMask
+    public static GameState of(Domino game) {
+        if (!game.getConfig().fitsMask())
+            throw new IllegalArgumentException("double-" + game.getConfig().getMaxPip() + " does not fit tile masks");
+        long[] hands = new long[game.getPlayersAmount()];
+        for (int i = 0; i < hands.length; i++)
+            hands[i] = Tiles.mask(game.getPlayerHand(i));
+        DominoMap map = game.getMap();
+        int[] edge1 = game.getEdgePoint1();
+        int[] edge2 = game.getEdgePoint2();
+        return new GameState(hands, game.getPoolMask(),
+                map.get(edge1[0], edge1[1]), map.get(edge2[0], edge2[1]));
+    }
+
+    public int getPlayersAmount() {
+        return hands.length;
+    }
+
+    public long getHand(int player) {
+        return hands[player];
+    }
+
+    public long getPool() {
+        return pool;
+    }
+
+    public int getEnd1() {
+        return end1;
+    }
+
+    public int getEnd2() {
+        return end2;
+    }
+
+    public int handSize(int player) {
+        return Long.bitCount(hands[player]);
+    }
+
+    public int poolSize() {
+        return Long.bitCount(pool);
+    }
+
+    public boolean hasPip(int player, int pip) {
+        return (hands[player] & Tiles.pipMask(pip)) != 0;
+    }
+
+    // Tiles in the player's hand that fit either open end
+    public long playable(int player) {
+        return hands[player] & (Tiles.pipMask(end1) | Tiles.pipMask(end2));
+    }
+
+    // Nothing left in any hand or the pool fits an open end
+    public boolean isBlocked() {
+        long open = Tiles.pipMask(end1) | Tiles.pipMask(end2);
+        if ((pool & open) != 0)
+            return false;
+        for (long hand : hands)
+            if ((hand & open) != 0)
+                return false;
+        return true;
+    }
+
+    public void draw(int player, int tile) {
+        long bit = 1L << tile;
+        if ((pool & bit) == 0)
+            throw new IllegalArgumentException("tile " + tile + " is not in the pool");
+        pool &= ~bit;
+        hands[player] |= bit;
+    }
+
+    // Plays the tile on open end 1 or 2; the other half of the tile becomes the new end value
+    public void play(int player, int tile, int end) {
+        long bit = 1L << tile;
+        if ((hands[player] & bit) == 0)
+            throw new IllegalArgumentException("tile " + tile + " is not in hand " + player);
+        Die die = Tiles.die(tile);
+        int value = end == 1 ? end1 : end2;
+        if (die.getHead() != value && die.getTail() != value)
+            throw new IllegalArgumentException("tile " + tile + " does not fit end " + end);
+        int open = die.getHead() == value ? die.getTail() : die.getHead();
+        hands[player] &= ~bit;
+        if (end == 1)
+            end1 = open;
+        else
+            end2 = open;
+    }
+}
@@ -0,0 +1,112 @@
+package dominos;
+
+import java.util.random.RandomGenerator;
+
+// The rules around one Domino: whose turn it is, when a player may draw or pass and when the
+// game is over. Refused actions return a Protocol error code and change nothing, accepted ones
+// return OK. Not thread safe; GameServer and TableManager keep each table on a single thread.
+public class GameTable {
+
+    public static final int OK = 0;
+
+    private final Domino game;
+    private final MoveBuffer moves = new MoveBuffer();
+    private int current;
+    private int passesInRow;
+    private boolean over;
+
+    // Deals and places the starting die
+    public GameTable(int playersAmount, RandomGenerator random) {
+        this(playersAmount, GameConfig.DOUBLE_SIX, random);
+    }
+
+    public GameTable(int playersAmount, GameConfig config, RandomGenerator random) {
+        game = new Domino(playersAmount, config, random);
+        game.generateDieSet();
+        game.makeHands();
+        current = (game.startMap() + 1) % playersAmount;
+    }
+
+    public Domino getGame() {
+        return game;
+    }
+
+    public int getCurrentPlayer() {
+        return current;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public int move(int seat, int dieIndex, int headX, int headY, int orientation) {
+        int refused = checkTurn(seat);
+        if (refused != OK)
+            return refused;
+        if (dieIndex < 0 || dieIndex >= game.getHandSize(seat) || orientation < 0 || orientation > 3)
+            return Protocol.ILLEGAL_MOVE;
+        int paddingX = MoveBuffer.paddingX(orientation);
+        int paddingY = MoveBuffer.paddingY(orientation);
+        if (!game.isLegalMove(game.getPlayerHand(seat).get(dieIndex), headX, headY, paddingX, paddingY))
+            return Protocol.ILLEGAL_MOVE;
+        game.makeMove(seat, dieIndex, headX, headY, paddingX, paddingY);
+        passesInRow = 0;
+        endTurn();
+        return OK;
+    }
+
+    // Only when nothing fits, as in GameEngine
+    public int draw(int seat) {
+        int refused = checkTurn(seat);
+        if (refused != OK)
+            return refused;
+        if (game.getPoolSize() == 0 || game.generateMoves(seat, moves) > 0)
+            return Protocol.CANNOT_DRAW;
+        game.pullDie(seat);
+        return OK;
+    }
+
+    // Only when nothing fits and the pool is empty
+    public int pass(int seat) {
+        int refused = checkTurn(seat);
+        if (refused != OK)
+            return refused;
+        if (game.getPoolSize() > 0 || game.generateMoves(seat, moves) > 0)
+            return Protocol.CANNOT_PASS;
+        passesInRow++;
+        endTurn();
+        return OK;
+    }
+
+    // Ends the game as it stands, e.g. when a player leaves
+    public void abandon() {
+        over = true;
+    }
+
+    private int checkTurn(int seat) {
+        if (over)
+            return Protocol.GAME_FINISHED;
+        return seat == current ? OK : Protocol.NOT_YOUR_TURN;
+    }
+
+    private void endTurn() {
+        if (game.handIsEmpty() || game.fishHappens() || passesInRow == game.getPlayersAmount())
+            over = true;
+        else
+            current = (current + 1) % game.getPlayersAmount();
+    }
+
+    public static String describe(int code) {
+        return switch (code) {
+            case OK -> "ok";
+            case Protocol.NOT_SEATED -> "not seated at a running table";
+            case Protocol.NOT_YOUR_TURN -> "not your turn";
+            case Protocol.ILLEGAL_MOVE -> "illegal move";
+            case Protocol.CANNOT_DRAW -> "cannot draw";
+            case Protocol.CANNOT_PASS -> "cannot pass";
+            case Protocol.BAD_MESSAGE -> "bad message";
+            case Protocol.GAME_FINISHED -> "game is over";
+            default -> "error " + code;
+        };
+    }
+}
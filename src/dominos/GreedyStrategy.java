@@ -0,0 +1,25 @@
+package dominos;
+
+// First die in hand order that fits an open end, placed in a random direction
+public class GreedyStrategy implements PlayerStrategy {
+
+    @Override
+    public int chooseMove(Domino game, int player, MoveBuffer moves) {
+        int dieIndex = Integer.MAX_VALUE;
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.getDieIndex(i) < dieIndex) {
+                dieIndex = moves.getDieIndex(i);
+                count = 0;
+            }
+            if (moves.getDieIndex(i) == dieIndex)
+                count++;
+        }
+
+        int pick = game.getRandom().nextInt(count);
+        for (int i = 0; i < moves.size(); i++)
+            if (moves.getDieIndex(i) == dieIndex && pick-- == 0)
+                return i;
+        throw new IllegalStateException("no moves");
+    }
+}
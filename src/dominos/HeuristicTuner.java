@@ -0,0 +1,240 @@
+package dominos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+// Tunes HeuristicStrategy weights by self-play with a (mu/mu_w, lambda) evolution strategy and
+// cumulative step-size adaptation. Every candidate takes seat 1 against greedy opponents on the
+// same seeded deals as the rest of its generation, so candidates are compared on equal terms;
+// the games of a candidate run in parallel through Tournament. Each generation also plays the
+// new mean on fresh deals, which gives an unbiased win rate to report and to pick the best by.
+// The whole state goes to a checkpoint after every generation, and a run started with an
+// existing checkpoint carries on from it with the same results as an uninterrupted run.
+//
+// Checkpoint: int MAGIC, long seed, u8 players, long games per candidate, int generation,
+// double sigma, mean and evolution path (DIMENSION doubles each), double best win rate, best weights.
+public class HeuristicTuner {
+
+    private static final int MAGIC = 0x44485431; // "DHT1"
+    // PIP_SUM stays at 1 since only the ratios of the weights matter; the others are searched
+    private static final int DIMENSION = HeuristicStrategy.FEATURES - 1;
+    private static final double INITIAL_SIGMA = 1;
+
+    // strategy parameters from the dimension, as recommended for CMA-ES
+    private final int lambda = 4 + (int) (3 * Math.log(DIMENSION));
+    private final int mu = lambda / 2;
+    private final double[] recombination = new double[mu];
+    private final double muEff;
+    private final double cSigma;
+    private final double dSigma;
+    private final double expectedNorm;
+
+    private final long seed;
+    private final int playersAmount;
+    private final long gamesPerCandidate;
+    private int generation;
+    private double sigma = INITIAL_SIGMA;
+    private final double[] mean = new double[DIMENSION];
+    private final double[] path = new double[DIMENSION];
+    private double bestWinRate = -1;
+    private double[] best = new double[DIMENSION];
+
+    public HeuristicTuner(long seed, int playersAmount, long gamesPerCandidate) {
+        GameConfig.DOUBLE_SIX.checkPlayers(playersAmount);
+        this.seed = seed;
+        this.playersAmount = playersAmount;
+        this.gamesPerCandidate = gamesPerCandidate;
+
+        double sum = 0;
+        for (int i = 0; i < mu; i++) {
+            recombination[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+            sum += recombination[i];
+        }
+        double squares = 0;
+        for (int i = 0; i < mu; i++) {
+            recombination[i] /= sum;
+            squares += recombination[i] * recombination[i];
+        }
+        muEff = 1 / squares;
+        cSigma = (muEff + 2) / (DIMENSION + muEff + 5);
+        dSigma = 1 + 2 * Math.max(0, Math.sqrt((muEff - 1) / (DIMENSION + 1)) - 1) + cSigma;
+        expectedNorm = Math.sqrt(DIMENSION) * (1 - 1.0 / (4 * DIMENSION) + 1.0 / (21 * DIMENSION * DIMENSION));
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    public double getBestWinRate() {
+        return bestWinRate;
+    }
+
+    // Full HeuristicStrategy weights of the best mean so far
+    public double[] getBestWeights() {
+        return weights(best);
+    }
+
+    // Seat 1 win rate of the weights against greedy opponents on the deals of the master seed
+    public double evaluate(double[] weights, long masterSeed, ForkJoinPool pool) {
+        Tournament tournament = new Tournament(() -> {
+            PlayerStrategy[] players = new PlayerStrategy[playersAmount];
+            players[0] = new HeuristicStrategy(weights);
+            for (int i = 1; i < playersAmount; i++)
+                players[i] = new GreedyStrategy();
+            return new GameEngine(players);
+        }, playersAmount, masterSeed);
+        TournamentResult result = tournament.run(gamesPerCandidate, pool);
+        return (double) result.getWins(0) / result.getGames();
+    }
+
+    // Samples, plays and ranks one generation and moves the mean and the step size
+    public void step(ForkJoinPool pool) {
+        SplittableRandom random = new SplittableRandom(Tournament.seedFor(seed, generation));
+        long deals = Tournament.seedFor(seed + 1, generation);
+
+        double[][] steps = new double[lambda][DIMENSION];
+        double[] winRates = new double[lambda];
+        Integer[] order = new Integer[lambda];
+        for (int k = 0; k < lambda; k++) {
+            double[] x = new double[DIMENSION];
+            for (int i = 0; i < DIMENSION; i++) {
+                steps[k][i] = random.nextGaussian();
+                x[i] = mean[i] + sigma * steps[k][i];
+            }
+            winRates[k] = evaluate(weights(x), deals, pool);
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(winRates[b], winRates[a]));
+
+        double[] meanStep = new double[DIMENSION];
+        for (int j = 0; j < mu; j++)
+            for (int i = 0; i < DIMENSION; i++)
+                meanStep[i] += recombination[j] * steps[order[j]][i];
+
+        double norm = 0;
+        double pathScale = Math.sqrt(cSigma * (2 - cSigma) * muEff);
+        for (int i = 0; i < DIMENSION; i++) {
+            mean[i] += sigma * meanStep[i];
+            path[i] = (1 - cSigma) * path[i] + pathScale * meanStep[i];
+            norm += path[i] * path[i];
+        }
+        sigma *= Math.exp(cSigma / dSigma * (Math.sqrt(norm) / expectedNorm - 1));
+        generation++;
+
+        double meanWinRate = evaluate(weights(mean), Tournament.seedFor(seed + 2, generation), pool);
+        if (meanWinRate > bestWinRate) {
+            bestWinRate = meanWinRate;
+            best = mean.clone();
+        }
+        System.out.printf("generation %d: best candidate %.2f%%, mean %.2f%% %s, sigma %.3f%n",
+                generation, winRates[order[0]] * 100, meanWinRate * 100,
+                Arrays.toString(round(weights(mean))), sigma);
+    }
+
+    private static double[] weights(double[] x) {
+        double[] weights = new double[HeuristicStrategy.FEATURES];
+        weights[HeuristicStrategy.PIP_SUM] = 1;
+        System.arraycopy(x, 0, weights, 1, DIMENSION);
+        return weights;
+    }
+
+    private static double[] round(double[] weights) {
+        double[] rounded = new double[weights.length];
+        for (int i = 0; i < weights.length; i++)
+            rounded[i] = Math.round(weights[i] * 1000) / 1000.0;
+        return rounded;
+    }
+
+    // Written to a temporary file first, so a crash never leaves a half written checkpoint behind
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 1 + 8 + 4 + 8 + 8 * (3 * DIMENSION + 1));
+        buffer.putInt(MAGIC).putLong(seed).put((byte) playersAmount).putLong(gamesPerCandidate);
+        buffer.putInt(generation).putDouble(sigma);
+        for (double v : mean)
+            buffer.putDouble(v);
+        for (double v : path)
+            buffer.putDouble(v);
+        buffer.putDouble(bestWinRate);
+        for (double v : best)
+            buffer.putDouble(v);
+        buffer.flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static HeuristicTuner load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buffer.getInt() != MAGIC)
+                throw new IOException(file + " is not a tuner checkpoint");
+            HeuristicTuner tuner = new HeuristicTuner(buffer.getLong(), buffer.get(), buffer.getLong());
+            tuner.generation = buffer.getInt();
+            tuner.sigma = buffer.getDouble();
+            for (int i = 0; i < DIMENSION; i++)
+                tuner.mean[i] = buffer.getDouble();
+            for (int i = 0; i < DIMENSION; i++)
+                tuner.path[i] = buffer.getDouble();
+            tuner.bestWinRate = buffer.getDouble();
+            for (int i = 0; i < DIMENSION; i++)
+                tuner.best[i] = buffer.getDouble();
+            return tuner;
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt checkpoint " + file, e);
+        }
+    }
+
+    // usage: HeuristicTuner [checkpoint] [generations] [games per candidate] [players] [seed] [threads]
+    // Resumes from the checkpoint if it exists, keeping the players, games and seed stored in it.
+    public static void main(String[] args) throws IOException {
+        Path checkpoint = Path.of(args.length > 0 ? args[0] : "heuristic-tuner.ckpt");
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        long games = args.length > 2 ? Long.parseLong(args[2]) : 20_000;
+        int playersAmount = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        HeuristicTuner tuner;
+        if (Files.exists(checkpoint)) {
+            tuner = load(checkpoint);
+            System.out.printf("Resuming %s at generation %d (%d players, %d games per candidate, seed %d)%n",
+                    checkpoint, tuner.generation, tuner.playersAmount, tuner.gamesPerCandidate, tuner.seed);
+        } else {
+            tuner = new HeuristicTuner(seed, playersAmount, games);
+            System.out.printf("Tuning from scratch, seed %d, %d candidates per generation%n", seed, tuner.lambda);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        long played = 0;
+        while (tuner.generation < generations) {
+            tuner.step(pool);
+            tuner.save(checkpoint);
+            played += (tuner.lambda + 1) * tuner.gamesPerCandidate;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        double fair = 100.0 / tuner.playersAmount;
+        System.out.printf("%d games in %.1f s (%.0f games/s)%n", played, seconds, played / seconds);
+        System.out.printf("Best weights %s win %.2f%% of games (fair share %.2f%%)%n",
+                Arrays.toString(round(tuner.getBestWeights())), tuner.bestWinRate * 100, fair);
+    }
+}
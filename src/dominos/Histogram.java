@@ -0,0 +1,55 @@
+package dominos;
+
+import java.util.Arrays;
+
+// Exact counts of small non-negative integers such as scores and turns; values above the
+// maximum share one overflow bin and are reported as maxValue + 1.
+public class Histogram {
+
+    private final long[] counts;
+    private long total;
+
+    public Histogram(int maxValue) {
+        counts = new long[maxValue + 2];
+    }
+
+    public void add(int value) {
+        counts[Math.min(Math.max(value, 0), counts.length - 1)]++;
+        total++;
+    }
+
+    public Histogram merge(Histogram other) {
+        if (other.counts.length != counts.length)
+            throw new IllegalArgumentException("histograms have different ranges");
+        for (int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+        total += other.total;
+        return this;
+    }
+
+    public long getCount(int value) {
+        return counts[Math.min(value, counts.length - 1)];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    // Smallest value with at least the fraction q of all values at or below it
+    public int quantile(double q) {
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return i;
+        }
+        return counts.length - 1;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+}
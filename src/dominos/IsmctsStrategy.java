@@ -0,0 +1,312 @@
+package dominos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Single-observer information set Monte Carlo tree search.
+// Every iteration re-deals the dice the bot cannot see (other hands and the pool), walks the
+// tree with UCB over the moves that are legal in that deal, expands one move and finishes the
+// game with random moves. Each worker thread grows its own tree for the time budget and the
+// root visit counts are summed (root parallelism). close() stops the worker threads.
+public class IsmctsStrategy implements PlayerStrategy, AutoCloseable {
+
+    private static final double EXPLORATION = 0.7;
+    private static final long PASS = -1;
+
+    private final long budgetNanos;
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final SplittableRandom seeds;
+
+    private long lastPlayouts;
+    private long lastNanos;
+
+    public IsmctsStrategy(long budgetMillis) {
+        this(budgetMillis, Runtime.getRuntime().availableProcessors(), new SplittableRandom());
+    }
+
+    public IsmctsStrategy(long budgetMillis, int threads, SplittableRandom seeds) {
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        this.seeds = seeds;
+    }
+
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    public double getLastPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1e9 / lastNanos;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    @Override
+    public int chooseMove(Domino game, int player, MoveBuffer moves) {
+        if (moves.size() == 1)
+            return 0;
+
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        ArrayList<Future<Node>> trees = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Search search = new Search(game, player, seeds.split(), deadline);
+            trees.add(pool.submit((Callable<Node>) search::run));
+        }
+
+        // sum the visits of the root moves over all trees
+        long[] visits = new long[moves.size()];
+        long playouts = 0;
+        for (Future<Node> tree : trees) {
+            Node root;
+            try {
+                root = tree.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search failed", e.getCause());
+            }
+            playouts += root.visits;
+            for (Node child : root.children)
+                for (int i = 0; i < moves.size(); i++)
+                    if (child.move == moveKey(game.getPlayerHand(player), moves, i))
+                        visits[i] += child.visits;
+        }
+        lastPlayouts = playouts;
+        lastNanos = System.nanoTime() - start;
+
+        int best = 0;
+        for (int i = 1; i < visits.length; i++)
+            if (visits[i] > visits[best])
+                best = i;
+        return best;
+    }
+
+    // Identifies a placement independently of where the die sits in the hand
+    private static long moveKey(ArrayList<Die> hand, MoveBuffer moves, int i) {
+        return (long) Tiles.index(hand.get(moves.getDieIndex(i))) << 40
+                | (long) moves.getOrientation(i) << 32
+                | (long) moves.getHeadX(i) << 16
+                | moves.getHeadY(i);
+    }
+
+    private static class Node {
+        final long move;
+        final int player;
+        final Node parent;
+        final ArrayList<Node> children = new ArrayList<>(4);
+        int visits;
+        int availability = 1;
+        double reward;
+
+        Node(long move, int player, Node parent) {
+            this.move = move;
+            this.player = player;
+            this.parent = parent;
+        }
+
+        Node child(long move) {
+            for (Node child : children)
+                if (child.move == move)
+                    return child;
+            return null;
+        }
+    }
+
+    private static class Search {
+        private final Domino rootGame;
+        private final int rootPlayer;
+        private final long deadline;
+        private final Domino game;
+        private final MoveBuffer moves = new MoveBuffer();
+        // keys of the moves in the buffer, grown with it
+        private long[] keys = new long[64];
+        private final double[] rewards;
+
+        Search(Domino rootGame, int rootPlayer, SplittableRandom random, long deadline) {
+            this.rootGame = rootGame;
+            this.rootPlayer = rootPlayer;
+            this.deadline = deadline;
+            this.game = new Domino(rootGame.getPlayersAmount(), rootGame.getConfig(), random);
+            this.rewards = new double[rootGame.getPlayersAmount()];
+        }
+
+        Node run() {
+            // the parent of the root stands for the previous player's move
+            Node root = new Node(PASS, (rootPlayer + game.getPlayersAmount() - 1) % game.getPlayersAmount(), null);
+            do {
+                iterate(root);
+            } while (System.nanoTime() < deadline);
+            return root;
+        }
+
+        private void iterate(Node root) {
+            game.copyFrom(rootGame);
+            game.determinize(rootPlayer);
+
+            Node node = root;
+            int player = rootPlayer;
+            int passesInRow = 0;
+            boolean expanded = false;
+
+            while (!isOver(passesInRow)) {
+                int count = legalMoves(player);
+                int choice;
+                if (!expanded) {
+                    choice = select(node, count);
+                    Node child = node.child(move(count, choice));
+                    if (child == null) {
+                        child = new Node(move(count, choice), player, node);
+                        node.children.add(child);
+                        expanded = true;
+                    }
+                    node = child;
+                } else {
+                    choice = count == 0 ? -1 : game.getRandom().nextInt(count);
+                }
+
+                if (choice < 0) {
+                    passesInRow++;
+                } else {
+                    game.makeMove(player, moves, choice);
+                    passesInRow = 0;
+                }
+                player = (player + 1) % game.getPlayersAmount();
+            }
+
+            scores(rewards);
+            for (Node n = node; n != null; n = n.parent) {
+                n.visits++;
+                n.reward += rewards[n.player];
+            }
+        }
+
+        // Draws until something fits; returns 0 when the player has to pass
+        private int legalMoves(int player) {
+            int count;
+            while ((count = game.generateMoves(player, moves)) == 0 && game.getPoolSize() > 0)
+                game.pullDie(player);
+            if (count > keys.length)
+                keys = Arrays.copyOf(keys, Math.max(count, keys.length * 2));
+            ArrayList<Die> hand = game.getPlayerHand(player);
+            for (int i = 0; i < count; i++)
+                keys[i] = moveKey(hand, moves, i);
+            return count;
+        }
+
+        private long move(int count, int choice) {
+            return count == 0 ? PASS : keys[choice];
+        }
+
+        // Expands an untried move if there is one, otherwise picks the best UCB child
+        // among the moves legal in this deal
+        private int select(Node node, int count) {
+            if (count == 0)
+                return -1;
+
+            int untried = 0;
+            for (int i = 0; i < count; i++)
+                if (node.child(keys[i]) == null)
+                    untried++;
+            if (untried > 0) {
+                int pick = game.getRandom().nextInt(untried);
+                for (int i = 0; i < count; i++)
+                    if (node.child(keys[i]) == null && pick-- == 0)
+                        return i;
+            }
+
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                Node child = node.child(keys[i]);
+                child.availability++;
+                double value = child.reward / child.visits +
+                        EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        private boolean isOver(int passesInRow) {
+            return game.handIsEmpty() || game.fishHappens() || passesInRow == game.getPlayersAmount();
+        }
+
+        // 1 for the lowest score, shared on a tie
+        private void scores(double[] rewards) {
+            int best = Integer.MAX_VALUE;
+            int winners = 0;
+            for (int i = 0; i < rewards.length; i++) {
+                int score = game.countScore(i);
+                rewards[i] = score;
+                if (score < best) {
+                    best = score;
+                    winners = 1;
+                } else if (score == best) {
+                    winners++;
+                }
+            }
+            for (int i = 0; i < rewards.length; i++)
+                rewards[i] = rewards[i] == best ? 1.0 / winners : 0;
+        }
+    }
+
+    // usage: IsmctsStrategy [games] [millis per move] [players]
+    // Seat 1 is the search bot, the others are greedy.
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int playersAmount = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        try (IsmctsStrategy bot = new IsmctsStrategy(millis)) {
+            MeasuringStrategy measured = new MeasuringStrategy(bot);
+            PlayerStrategy[] players = new PlayerStrategy[playersAmount];
+            players[0] = measured;
+            for (int i = 1; i < playersAmount; i++)
+                players[i] = new GreedyStrategy();
+            GameEngine engine = new GameEngine(players);
+
+            TournamentResult result = new TournamentResult(playersAmount);
+            for (int g = 0; g < games; g++)
+                result.add(engine.playGame(Tournament.seedFor(42, g)));
+
+            System.out.printf("%d ms per move, %d threads: %.0f playouts/s over %d searches%n",
+                    millis, bot.threads, measured.playouts * 1e9 / measured.nanos, measured.searches);
+            System.out.println(result);
+        }
+    }
+
+    private static class MeasuringStrategy implements PlayerStrategy {
+        private final IsmctsStrategy bot;
+        private long playouts;
+        private long nanos;
+        private int searches;
+
+        MeasuringStrategy(IsmctsStrategy bot) {
+            this.bot = bot;
+        }
+
+        @Override
+        public int chooseMove(Domino game, int player, MoveBuffer moves) {
+            int move = bot.chooseMove(game, player, moves);
+            if (moves.size() > 1) {
+                playouts += bot.lastPlayouts;
+                nanos += bot.lastNanos;
+                searches++;
+            }
+            return move;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package dominos;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+// Fills a GameServer with greedy clients from one selector thread and reports actions per
+// second and the latency from sending an action to the server's answer.
+// Every client plays from the STATE it receives and joins a new table when a game is over.
+// usage: LoadGenerator [host] [port] [tables] [players] [seconds] [max pip]
+public class LoadGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 12;
+
+    private final Selector selector;
+    private final int playersAmount;
+    private final GameConfig config;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final GreedyStrategy bot = new GreedyStrategy();
+
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+    private long actions;
+    private long placements;
+    private long games;
+    private long errors;
+
+    public LoadGenerator(String host, int port, int clients, int playersAmount, GameConfig config) throws IOException {
+        this.selector = Selector.open();
+        this.playersAmount = playersAmount;
+        this.config = config;
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        for (int i = 0; i < clients; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            Client client = new Client(channel, key);
+            key.attach(client);
+            Protocol.join(client.out, playersAmount, config);
+            flush(client);
+        }
+    }
+
+    public void run(long seconds) throws IOException {
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long lastReport = start;
+        long lastActions = 0;
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isValid() && key.isReadable())
+                    read(client);
+                if (key.isValid() && key.isWritable())
+                    flush(client);
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReport >= 1_000_000_000L) {
+                System.out.printf("%.0f actions/s%n", (actions - lastActions) * 1e9 / (now - lastReport));
+                lastReport = now;
+                lastActions = actions;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        System.out.printf("%d games, %.0f actions/s, %.0f moves/s, %d errors%n",
+                games, actions / elapsed, placements / elapsed, errors);
+        System.out.printf("latency p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        selector.close();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1e6;
+    }
+
+    private void read(Client client) throws IOException {
+        if (client.channel.read(client.in) < 0) {
+            client.key.cancel();
+            client.channel.close();
+            return;
+        }
+        ByteBuffer in = client.in.flip();
+        int length;
+        while ((length = Protocol.completeFrame(in)) >= 0) {
+            int end = in.position() + 2 + length;
+            in.position(in.position() + 2);
+            handle(client, in.get() & 0xFF, in);
+            in.position(end);
+        }
+        in.compact();
+        // a state too large for the buffer
+        if (!in.hasRemaining())
+            client.in = ByteBuffer.allocate(in.capacity() * 2).put(in.flip());
+        if (client.out.position() > 0)
+            flush(client);
+    }
+
+    private void handle(Client client, int type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.JOINED -> {
+                payload.getInt();
+                client.seat = payload.get();
+            }
+            case Protocol.STATE -> {
+                answered(client);
+                int current = payload.get();
+                payload.get();
+                if (current == client.seat)
+                    act(client, payload);
+            }
+            case Protocol.ERROR -> {
+                answered(client);
+                errors++;
+            }
+            case Protocol.GAME_OVER -> {
+                answered(client);
+                if (client.seat == 0)
+                    games++;
+                Protocol.join(client.out, playersAmount, config);
+            }
+            default -> throw new IllegalStateException("unknown message " + type);
+        }
+    }
+
+    private void act(Client client, ByteBuffer view) {
+        Domino game = client.game;
+        game.readSnapshot(view);
+        int seat = client.seat;
+        if (game.generateMoves(seat, moves) > 0) {
+            int i = bot.chooseMove(game, seat, moves);
+            Protocol.move(client.out, moves.getDieIndex(i), moves.getHeadX(i), moves.getHeadY(i), moves.getOrientation(i));
+            placements++;
+        } else {
+            Protocol.command(client.out, game.getPoolSize() > 0 ? Protocol.DRAW : Protocol.PASS);
+        }
+        actions++;
+        client.sentAt = System.nanoTime();
+    }
+
+    private void answered(Client client) {
+        if (client.sentAt == 0)
+            return;
+        if (latencyCount == latencies.length)
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        latencies[latencyCount++] = System.nanoTime() - client.sentAt;
+        client.sentAt = 0;
+    }
+
+    private void flush(Client client) {
+        ByteBuffer out = client.out.flip();
+        try {
+            client.channel.write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("server closed the connection", e);
+        }
+        out.compact();
+        client.key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private class Client {
+        final SocketChannel channel;
+        final SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        final Domino game = new Domino(playersAmount, config, new SplittableRandom());
+        int seat = -1;
+        long sentAt;
+
+        Client(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7777;
+        int tables = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int playersAmount = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long seconds = args.length > 4 ? Long.parseLong(args[4]) : 30;
+        GameConfig config = GameConfig.standard(args.length > 5 ? Integer.parseInt(args[5]) : 6, playersAmount);
+
+        LoadGenerator generator = new LoadGenerator(host, port, tables * playersAmount, playersAmount, config);
+        generator.run(seconds);
+    }
+}
@@ -1,3 +1,5 @@
+package dominos;
+
 import javafx.application.Application;
 
 public class Main {
@@ -0,0 +1,85 @@
+package dominos;
+
+import java.util.Arrays;
+
+// Reusable list of legal placements filled by Domino.generateMoves.
+// Grows on demand and never shrinks, so a warmed up buffer does not allocate.
+public class MoveBuffer {
+
+    // orientation is the direction from head to tail
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    private int[] dieIndex = new int[16];
+    private int[] headX = new int[16];
+    private int[] headY = new int[16];
+    private int[] orientation = new int[16];
+    private int[] edge = new int[16];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int dieIndex, int headX, int headY, int orientation, int edge) {
+        if (size == this.dieIndex.length)
+            grow();
+        this.dieIndex[size] = dieIndex;
+        this.headX[size] = headX;
+        this.headY[size] = headY;
+        this.orientation[size] = orientation;
+        this.edge[size] = edge;
+        size++;
+    }
+
+    // Index of the die in the player's hand
+    public int getDieIndex(int i) {
+        return dieIndex[i];
+    }
+
+    public int getHeadX(int i) {
+        return headX[i];
+    }
+
+    public int getHeadY(int i) {
+        return headY[i];
+    }
+
+    public int getOrientation(int i) {
+        return orientation[i];
+    }
+
+    public int getPaddingX(int i) {
+        return DX[orientation[i]];
+    }
+
+    public int getPaddingY(int i) {
+        return DY[orientation[i]];
+    }
+
+    // Open end the die attaches to: 1 or 2 as in Domino.isAttachedToEdge
+    public int getEdge(int i) {
+        return edge[i];
+    }
+
+    public static int paddingX(int orientation) {
+        return DX[orientation];
+    }
+
+    public static int paddingY(int orientation) {
+        return DY[orientation];
+    }
+
+    private void grow() {
+        int capacity = dieIndex.length * 2;
+        dieIndex = Arrays.copyOf(dieIndex, capacity);
+        headX = Arrays.copyOf(headX, capacity);
+        headY = Arrays.copyOf(headY, capacity);
+        orientation = Arrays.copyOf(orientation, capacity);
+        edge = Arrays.copyOf(edge, capacity);
+    }
+}
@@ -0,0 +1,249 @@
+package dominos;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Solves two-player games once the pool is empty, when nothing is hidden any more; earlier in
+// the game, and with more players, it asks the fallback strategy.
+// Values are exact only under the open-end model of GameState: hands and the two end values,
+// where any tile that matches an end can be played there. Below the root the board geometry
+// is ignored, but on the real board a die may touch the chain only at the end it extends.
+// The board can then refuse moves the model allows, down to a player who must pass although
+// a tile matches, and a round of such passes ends the game (see GameEngine) while fishHappens
+// is still false. Domino.countScore can then differ from the value.
+// The search is alpha-beta over that model, scored like countScore and memoized in a
+// transposition table keyed by the Zobrist hash of hands, ends and side to move. Positions have
+// values that never change, so the table keeps paying off across turns.
+// The root is only made of moves that are legal on the real board.
+public class OpenEndSolver implements PlayerStrategy, AutoCloseable {
+
+    // root moves are searched in parallel from this many tiles in both hands
+    private static final int PARALLEL_TILES = 14;
+    private static final int INFINITY = 1 << 20;
+
+    private final PlayerStrategy fallback;
+    private final TranspositionTable table;
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    private int lastValue;
+    private long lastNodes;
+
+    public OpenEndSolver(PlayerStrategy fallback) {
+        this(fallback, 64, Runtime.getRuntime().availableProcessors());
+    }
+
+    public OpenEndSolver(PlayerStrategy fallback, int megabytes, int threads) {
+        this.fallback = fallback;
+        this.table = new TranspositionTable(megabytes);
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public static boolean applies(Domino game) {
+        return game.getPlayersAmount() == 2 && game.getPoolSize() == 0 && game.getConfig().fitsMask();
+    }
+
+    // Final score of the opponent minus that of the player with best play on both sides under
+    // the open-end model, from the position after the last chooseMove
+    public int getLastValue() {
+        return lastValue;
+    }
+
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    // Stops the worker threads of the root search
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    @Override
+    public int chooseMove(Domino game, int player, MoveBuffer moves) {
+        if (!applies(game))
+            return fallback.chooseMove(game, player, moves);
+
+        GameState state = GameState.of(game);
+        long me = state.getHand(player);
+        long opponent = state.getHand(1 - player);
+        int end1 = state.getEnd1();
+        int end2 = state.getEnd2();
+        long hash = Zobrist.hash(state, player);
+        table.newSearch();
+
+        // one search per distinct tile and end among the real moves
+        ArrayList<Die> hand = game.getPlayerHand(player);
+        int[] rootMoves = new int[moves.size()];
+        int rootCount = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = Tiles.index(hand.get(moves.getDieIndex(i))) * 2 + moves.getEdge(i) - 1;
+            boolean seen = false;
+            for (int r = 0; r < rootCount; r++)
+                seen |= rootMoves[r] == move;
+            if (!seen)
+                rootMoves[rootCount++] = move;
+        }
+
+        int[] values = new int[rootCount];
+        long nodes = 0;
+        if (rootCount > 1 && Long.bitCount(me | opponent) >= PARALLEL_TILES && threads > 1) {
+            ArrayList<Future<Search>> searches = new ArrayList<>();
+            for (int r = 0; r < rootCount; r++) {
+                int move = rootMoves[r];
+                searches.add(pool.submit(() -> {
+                    Search search = new Search();
+                    search.value = search.root(me, opponent, end1, end2, player, hash, move, -INFINITY, INFINITY);
+                    return search;
+                }));
+            }
+            for (int r = 0; r < rootCount; r++) {
+                Search search;
+                try {
+                    search = searches.get(r).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("search interrupted", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("search failed", e.getCause());
+                }
+                values[r] = search.value;
+                nodes += search.nodes;
+            }
+        } else {
+            Search search = new Search();
+            int alpha = -INFINITY;
+            for (int r = 0; r < rootCount; r++) {
+                values[r] = search.root(me, opponent, end1, end2, player, hash, rootMoves[r], alpha, INFINITY);
+                alpha = Math.max(alpha, values[r]);
+            }
+            nodes = search.nodes;
+        }
+
+        int best = 0;
+        for (int r = 1; r < rootCount; r++)
+            if (values[r] > values[best])
+                best = r;
+        lastValue = values[best];
+        lastNodes = nodes;
+
+        for (int i = 0; i < moves.size(); i++)
+            if (Tiles.index(hand.get(moves.getDieIndex(i))) * 2 + moves.getEdge(i) - 1 == rootMoves[best])
+                return i;
+        throw new IllegalStateException("root move lost");
+    }
+
+    // Value under the open-end model for the side to move in an abstract position, mostly for
+    // tools and checks
+    public int solve(GameState state, int sideToMove) {
+        if (state.getPlayersAmount() != 2 || state.poolSize() != 0)
+            throw new IllegalArgumentException("only two-player positions with an empty pool");
+        table.newSearch();
+        Search search = new Search();
+        lastValue = search.search(state.getHand(sideToMove), state.getHand(1 - sideToMove),
+                state.getEnd1(), state.getEnd2(), sideToMove, Zobrist.hash(state, sideToMove), -INFINITY, INFINITY);
+        lastNodes = search.nodes;
+        return lastValue;
+    }
+
+    private class Search {
+        long nodes;
+        int value;
+
+        // Value of playing the move (tile * 2 + end - 1) for the side to move
+        int root(long me, long opponent, int end1, int end2, int side, long hash, int move, int alpha, int beta) {
+            return play(me, opponent, end1, end2, side, childHash(hash, side, end1, end2), move, alpha, beta);
+        }
+
+        // Negamax: the opponent's final score minus the side to move's
+        int search(long me, long opponent, int end1, int end2, int side, long hash, int alpha, int beta) {
+            nodes++;
+            long open = Tiles.pipMask(end1) | Tiles.pipMask(end2);
+            boolean fish = ((me | opponent) & open) == 0;
+            if (opponent == 0 || fish)
+                return score(opponent, fish) - score(me, fish);
+
+            int other = 1 - side;
+            long playable = me & open;
+            if (playable == 0) // pass
+                return -search(opponent, me, end1, end2, other, hash ^ Zobrist.side(side) ^ Zobrist.side(other), -beta, -alpha);
+
+            int originalAlpha = alpha;
+            int ttMove = TranspositionTable.NO_MOVE;
+            long entry = table.probe(hash);
+            if (entry != TranspositionTable.MISS) {
+                int value = TranspositionTable.value(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT)
+                    return value;
+                if (bound == TranspositionTable.LOWER)
+                    alpha = Math.max(alpha, value);
+                else
+                    beta = Math.min(beta, value);
+                if (alpha >= beta)
+                    return value;
+                ttMove = TranspositionTable.move(entry);
+            }
+
+            long baseHash = childHash(hash, side, end1, end2);
+            int best = -INFINITY;
+            int bestMove = TranspositionTable.NO_MOVE;
+            if (ttMove != TranspositionTable.NO_MOVE) {
+                best = play(me, opponent, end1, end2, side, baseHash, ttMove, alpha, beta);
+                bestMove = ttMove;
+                alpha = Math.max(alpha, best);
+            }
+            // heavier tiles (higher indices) first
+            for (long m = playable; m != 0 && alpha < beta; m &= ~Long.highestOneBit(m)) {
+                int tile = 63 - Long.numberOfLeadingZeros(m);
+                for (int end = 0; end < 2 && alpha < beta; end++) {
+                    int move = tile * 2 + end;
+                    // with both ends alike the second end gives the same positions
+                    if (move == ttMove || end == 1 && end1 == end2)
+                        continue;
+                    int value = play(me, opponent, end1, end2, side, baseHash, move, alpha, beta);
+                    if (value > best) {
+                        best = value;
+                        bestMove = move;
+                        alpha = Math.max(alpha, value);
+                    }
+                }
+            }
+
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(hash, best, Long.bitCount(me | opponent), bound, bestMove);
+            return best;
+        }
+
+        // Value of the move, or -INFINITY if the tile does not fit that end
+        private int play(long me, long opponent, int end1, int end2, int side, long baseHash, int move, int alpha, int beta) {
+            int tile = move >> 1;
+            Die die = Tiles.die(tile);
+            int end = (move & 1) == 0 ? end1 : end2;
+            if (die.getHead() != end && die.getTail() != end)
+                return -INFINITY;
+            int open = die.getHead() == end ? die.getTail() : die.getHead();
+            int newEnd1 = (move & 1) == 0 ? open : end1;
+            int newEnd2 = (move & 1) == 0 ? end2 : open;
+            return -search(opponent, me & ~(1L << tile), newEnd1, newEnd2, 1 - side,
+                    baseHash ^ Zobrist.tile(side, tile) ^ Zobrist.ends(newEnd1, newEnd2), -beta, -alpha);
+        }
+    }
+
+    // Hash of a position without the ends and with the move passed to the other side;
+    // the played tile and the new ends are xor-ed in by play
+    private static long childHash(long hash, int side, int end1, int end2) {
+        return hash ^ Zobrist.side(side) ^ Zobrist.side(1 - side) ^ Zobrist.ends(end1, end2);
+    }
+
+    // Domino.countScore in mask form
+    private static int score(long hand, boolean fish) {
+        if (Long.bitCount(hand) == 1 && !fish)
+            return 25;
+        return Tiles.pipSum(hand);
+    }
+}
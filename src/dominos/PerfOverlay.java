@@ -0,0 +1,117 @@
+package dominos;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.text.Font;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Frame rate and engine timings shown over the board. The frame timer only runs while the
+// overlay is visible and the text is rebuilt a few times per second, so it barely touches
+// what it measures.
+public final class PerfOverlay extends Label {
+
+    private static final long REFRESH_NANOS = 250_000_000L;
+
+    private final IntSupplier boardNodes;
+    private final Supplier<DominoMap> map;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final AnimationTimer timer;
+
+    private long lastFrame;
+    private long windowStart;
+    private int frames;
+    private long worstFrame;
+
+    private long boardUpdateNanos;
+    private long handUpdateNanos;
+    private long botThinkNanos;
+
+    public PerfOverlay(IntSupplier boardNodes, Supplier<DominoMap> map) {
+        this.boardNodes = boardNodes;
+        this.map = map;
+        setFont(Font.font("Monospaced", 12));
+        setStyle("-fx-background-color: rgba(0,0,0,0.7); -fx-text-fill: #7CFC00;");
+        setPadding(new Insets(6));
+        setMouseTransparent(true);
+        setVisible(false);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                frame(now);
+            }
+        };
+    }
+
+    public void toggle() {
+        setVisible(!isVisible());
+        if (isVisible()) {
+            // a fresh window, so the first figures do not count frames from before it was hidden
+            lastFrame = 0;
+            windowStart = 0;
+            frames = 0;
+            worstFrame = 0;
+            refresh(0, 0);
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    public void recordBoardUpdate(long nanos) {
+        boardUpdateNanos = nanos;
+    }
+
+    public void recordHandUpdate(long nanos) {
+        handUpdateNanos = nanos;
+    }
+
+    public void recordBotThink(long nanos) {
+        botThinkNanos = nanos;
+    }
+
+    private void frame(long now) {
+        if (lastFrame != 0) {
+            frames++;
+            worstFrame = Math.max(worstFrame, now - lastFrame);
+        } else {
+            windowStart = now;
+        }
+        lastFrame = now;
+
+        long window = now - windowStart;
+        if (window >= REFRESH_NANOS) {
+            refresh(frames * 1e9 / window, worstFrame);
+            frames = 0;
+            worstFrame = 0;
+            windowStart = now;
+        }
+    }
+
+    private void refresh(double fps, long worstFrame) {
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        long gcCount = 0;
+        for (GarbageCollectorMXBean collector : collectors)
+            gcCount += Math.max(0, collector.getCollectionCount());
+        DominoMap board = map.get();
+
+        setText(String.format(
+                "FPS %5.1f  worst frame %5.1f ms%n" +
+                "board nodes %d  map %dx%d%n" +
+                "updateBoard %.2f ms  hand %.2f ms%n" +
+                "bot think %.1f ms%n" +
+                "heap %d / %d MB  GCs %d",
+                fps, worstFrame / 1e6,
+                boardNodes.getAsInt(), board.getLength(), board.getWidth(),
+                boardUpdateNanos / 1e6, handUpdateNanos / 1e6,
+                botThinkNanos / 1e6,
+                usedHeap >> 20, runtime.maxMemory() >> 20, gcCount));
+    }
+}
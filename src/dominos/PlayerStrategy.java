@@ -0,0 +1,8 @@
+package dominos;
+
+public interface PlayerStrategy {
+
+    // Picks one of the legal moves Domino.generateMoves put into the buffer (never empty)
+    // and returns its index
+    int chooseMove(Domino game, int player, MoveBuffer moves);
+}
@@ -0,0 +1,96 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+
+// Binary messages between GameServer and its clients. Every frame is
+// [u16 length of the rest][u8 type][payload], all numbers big-endian.
+//
+// Client to server:
+//   JOIN      u8 players [u8 max pip, u8 hand size]
+//                                    seat me at the next table of that size and tile set,
+//                                    double-six with 7 tiles per hand if the set is left out
+//   MOVE      u8 die index, u16 head x, u16 head y, u8 orientation (see MoveBuffer)
+//   DRAW
+//   PASS                             only when nothing fits and the pool is empty
+// Server to client:
+//   JOINED    int table, u8 seat, u8 players
+//   STATE     u8 player to move, u8 your seat, Domino.writeView for your seat
+//   ERROR     u8 code
+//   GAME_OVER u8 players, u16 score per player
+public final class Protocol {
+
+    public static final int JOIN = 1;
+    public static final int MOVE = 2;
+    public static final int DRAW = 3;
+    public static final int PASS = 4;
+
+    public static final int JOINED = 64;
+    public static final int STATE = 65;
+    public static final int ERROR = 66;
+    public static final int GAME_OVER = 67;
+
+    public static final int NOT_SEATED = 1;
+    public static final int NOT_YOUR_TURN = 2;
+    public static final int ILLEGAL_MOVE = 3;
+    public static final int CANNOT_DRAW = 4;
+    public static final int CANNOT_PASS = 5;
+    public static final int BAD_MESSAGE = 6;
+    public static final int GAME_FINISHED = 7;
+
+    public static final int MAX_FRAME = 0xFFFF;
+
+    private Protocol() {
+    }
+
+    // Starts a frame; returns the position to hand to endFrame once the payload is written
+    public static int beginFrame(ByteBuffer buffer, int type) {
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        buffer.put((byte) type);
+        return start;
+    }
+
+    // Writes the length; a payload the u16 cannot hold is dropped and the buffer is left as
+    // it was before beginFrame
+    public static void endFrame(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start - 2;
+        if (length > MAX_FRAME) {
+            buffer.position(start);
+            throw new IllegalStateException("frame of " + length + " bytes, at most " + MAX_FRAME + " fit");
+        }
+        buffer.putShort(start, (short) length);
+    }
+
+    public static void join(ByteBuffer buffer, int players) {
+        int start = beginFrame(buffer, JOIN);
+        buffer.put((byte) players);
+        endFrame(buffer, start);
+    }
+
+    public static void join(ByteBuffer buffer, int players, GameConfig config) {
+        int start = beginFrame(buffer, JOIN);
+        buffer.put((byte) players).put((byte) config.getMaxPip()).put((byte) config.getHandSize());
+        endFrame(buffer, start);
+    }
+
+    public static void move(ByteBuffer buffer, int dieIndex, int headX, int headY, int orientation) {
+        int start = beginFrame(buffer, MOVE);
+        buffer.put((byte) dieIndex);
+        buffer.putShort((short) headX);
+        buffer.putShort((short) headY);
+        buffer.put((byte) orientation);
+        endFrame(buffer, start);
+    }
+
+    public static void command(ByteBuffer buffer, int type) {
+        endFrame(buffer, beginFrame(buffer, type));
+    }
+
+    // Length of the frame at the buffer position if it has fully arrived, -1 otherwise
+    public static int completeFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < 2)
+            return -1;
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        return buffer.remaining() >= 2 + length ? length : -1;
+    }
+}
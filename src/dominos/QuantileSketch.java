@@ -0,0 +1,122 @@
+package dominos;
+
+import java.util.Arrays;
+
+// Quantiles of positive values with a bounded relative error, in the style of DDSketch:
+// value v goes into bucket ceil(log(v) / log(gamma)) with gamma = (1 + a) / (1 - a), so every
+// reported quantile is within the fraction a of a true value. Buckets live in a dense array
+// that grows on demand; past MAX_BUCKETS the lowest buckets are folded together, which only
+// costs accuracy at the bottom of the range. Sketches with the same accuracy merge exactly.
+public class QuantileSketch {
+
+    private static final int MAX_BUCKETS = 2048;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // counts[i] is bucket minIndex + i
+    private long[] counts = new long[64];
+    private int minIndex;
+    private int maxIndex = Integer.MIN_VALUE;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    // Values at or below zero are counted as zero
+    public void add(double value) {
+        count++;
+        if (value <= 0) {
+            zeroCount++;
+            return;
+        }
+        addToBucket((int) Math.ceil(Math.log(value) / logGamma), 1);
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy)
+            throw new IllegalArgumentException("sketches have different accuracy");
+        if (other.maxIndex != Integer.MIN_VALUE)
+            for (int index = other.minIndex; index <= other.maxIndex; index++) {
+                long n = other.counts[index - other.minIndex];
+                if (n != 0)
+                    addToBucket(index, n);
+            }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public double quantile(double q) {
+        if (count == 0)
+            return Double.NaN;
+        long rank = (long) (q * (count - 1));
+        if (rank < zeroCount)
+            return 0;
+        long seen = zeroCount;
+        for (int index = minIndex; index <= maxIndex; index++) {
+            seen += counts[index - minIndex];
+            if (seen > rank)
+                return 2 * Math.pow(gamma, index) / (gamma + 1);
+        }
+        return 2 * Math.pow(gamma, maxIndex) / (gamma + 1);
+    }
+
+    private void addToBucket(int index, long n) {
+        if (maxIndex == Integer.MIN_VALUE) {
+            minIndex = index - counts.length / 2;
+            maxIndex = index;
+        }
+        if (index > maxIndex)
+            maxIndex = index;
+        if (maxIndex - MAX_BUCKETS + 1 > minIndex)
+            collapse(maxIndex - MAX_BUCKETS + 1);
+        if (index < minIndex) {
+            if (maxIndex - index >= MAX_BUCKETS)
+                index = minIndex; // below the kept range: counts into the lowest bucket
+            else
+                growLow(index);
+        }
+        if (index - minIndex >= counts.length)
+            counts = Arrays.copyOf(counts, Math.min(MAX_BUCKETS, Math.max(index - minIndex + 1, counts.length * 2)));
+        counts[index - minIndex] += n;
+    }
+
+    // Reallocates so the buckets from index up to maxIndex fit, with room left on both sides
+    private void growLow(int index) {
+        int span = maxIndex - index + 1;
+        int length = Math.min(MAX_BUCKETS, Math.max(span, counts.length * 2));
+        int newMinIndex = index - (length - span) / 2;
+        long[] grown = new long[length];
+        System.arraycopy(counts, 0, grown, minIndex - newMinIndex, maxIndex - minIndex + 1);
+        counts = grown;
+        minIndex = newMinIndex;
+    }
+
+    // Folds every bucket below newMinIndex into it
+    private void collapse(int newMinIndex) {
+        int shift = newMinIndex - minIndex;
+        long folded = 0;
+        for (int i = 0; i < Math.min(shift + 1, counts.length); i++)
+            folded += counts[i];
+        long[] kept = new long[counts.length];
+        if (shift < counts.length)
+            System.arraycopy(counts, shift, kept, 0, counts.length - shift);
+        kept[0] = folded;
+        counts = kept;
+        minIndex = newMinIndex;
+    }
+}
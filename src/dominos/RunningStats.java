@@ -0,0 +1,64 @@
+package dominos;
+
+// Count, mean and variance of a stream in one pass (Welford). Two accumulators merge exactly
+// (Chan et al.), so per-thread stats can be combined in any order.
+public class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        if (x < min) min = x;
+        if (x > max) max = x;
+    }
+
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0)
+            return this;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    // Sample variance
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    // Half width of the 95% confidence interval of the mean (normal approximation)
+    public double getConfidence95() {
+        return count > 1 ? 1.96 * Math.sqrt(getVariance() / count) : Double.NaN;
+    }
+}
@@ -0,0 +1,46 @@
+package dominos;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class Simulator {
+
+    // usage: Simulator [games] [players] [seed] [threads] [record file or -] [max pip] [hand size]
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int playersAmount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Path recordFile = args.length > 4 && !args[4].equals("-") ? Path.of(args[4]) : null;
+        int maxPip = args.length > 5 ? Integer.parseInt(args[5]) : 6;
+        GameConfig config = args.length > 6 ? new GameConfig(maxPip, Integer.parseInt(args[6]))
+                : GameConfig.standard(maxPip, playersAmount);
+        GameRecordWriter writer = recordFile != null ? new GameRecordWriter(recordFile) : null;
+
+        Tournament tournament = new Tournament(() -> {
+            PlayerStrategy[] players = new PlayerStrategy[playersAmount];
+            for (int i = 0; i < playersAmount; i++)
+                players[i] = new GreedyStrategy();
+            GameEngine engine = new GameEngine(config, players);
+            if (writer != null)
+                engine.setRecorder(new GameRecorder(writer));
+            return engine;
+        }, playersAmount, seed);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        TournamentResult result = tournament.run(games, pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        if (writer != null)
+            writer.close();
+
+        System.out.printf("Seed %d, %d threads, %s%n", seed, threads, config);
+        System.out.printf("%d games in %.2f s: %.0f games/s%n", games, seconds, games / seconds);
+        System.out.println(result);
+        if (writer != null)
+            System.out.printf("%d games recorded to %s (%d bytes)%n", writer.getRecords(), recordFile, Files.size(recordFile));
+    }
+}
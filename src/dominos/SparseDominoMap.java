@@ -0,0 +1,360 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// The board as an open-addressing hash of the occupied cells only, keyed by the packed stable
+// coordinates (x - shiftX, y - shiftY). Stored cells never move: extendMap only updates the
+// view bounds, and memory, copies and snapshots grow with the tiles played instead of the
+// board area.
+public class SparseDominoMap implements DominoMap {
+
+    private static final byte EMPTY = -1;
+    private static final int MARGIN = 2;
+    private static final int INITIAL_CAPACITY = 64;
+    // no cell packs to it, that would take a stable x of Integer.MIN_VALUE
+    private static final long FREE = Long.MIN_VALUE;
+    // x, y and value of an occupied cell in a snapshot
+    private static final int CELL_BYTES = 4 + 4 + 1;
+
+    // linear probing, at most half full
+    private long[] keys = newKeys(INITIAL_CAPACITY);
+    private byte[] values = new byte[INITIAL_CAPACITY];
+    private int size;
+    private final CellWriter cellWriter = new CellWriter();
+    // occupied cells packed for the cellWriter
+    private long[] order = new long[INITIAL_CAPACITY / 2];
+
+    private int length;
+    private int width;
+
+    // bounding box of occupied cells in view coordinates
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    private int shiftX;
+    private int shiftY;
+
+    private final int[] padding = new int[2];
+
+    // saved view bounds for undo, MARK_SIZE ints per mark
+    private static final int MARK_SIZE = 8;
+    private int[] marks = new int[MARK_SIZE * 16];
+    private int markCount;
+
+    @Override
+    public int get(int x, int y){
+        checkBounds(x, y);
+        long key = key(x - shiftX, y - shiftY);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key)
+                return values[i];
+            if (k == FREE)
+                return EMPTY;
+        }
+    }
+
+    @Override
+    public int getLength(){
+        return length;
+    }
+
+    @Override
+    public int getWidth(){
+        return width;
+    }
+
+    @Override
+    public int getShiftX(){
+        return shiftX;
+    }
+
+    @Override
+    public int getShiftY(){
+        return shiftY;
+    }
+
+    @Override
+    public int getMinOccupiedX(){
+        return minX;
+    }
+
+    @Override
+    public int getMinOccupiedY(){
+        return minY;
+    }
+
+    @Override
+    public int getMaxOccupiedX(){
+        return maxX;
+    }
+
+    @Override
+    public int getMaxOccupiedY(){
+        return maxY;
+    }
+
+    // Number of occupied cells
+    public int getCellCount(){
+        return size;
+    }
+
+    @Override
+    public void set(int v, int x, int y){
+        checkBounds(x, y);
+        long key = key(x - shiftX, y - shiftY);
+        if (v == EMPTY) {
+            remove(key);
+            return;
+        }
+        put(key, (byte) v);
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    @Override
+    public void pushMark(){
+        if ((markCount + 1) * MARK_SIZE > marks.length)
+            marks = Arrays.copyOf(marks, marks.length * 2);
+        int m = markCount++ * MARK_SIZE;
+        marks[m] = length;
+        marks[m + 1] = width;
+        marks[m + 2] = minX;
+        marks[m + 3] = minY;
+        marks[m + 4] = maxX;
+        marks[m + 5] = maxY;
+        marks[m + 6] = shiftX;
+        marks[m + 7] = shiftY;
+    }
+
+    @Override
+    public void popMark(){
+        if (markCount == 0)
+            throw new IllegalStateException("no mark to pop");
+        int m = --markCount * MARK_SIZE;
+        length = marks[m];
+        width = marks[m + 1];
+        minX = marks[m + 2];
+        minY = marks[m + 3];
+        maxX = marks[m + 4];
+        maxY = marks[m + 5];
+        shiftX = marks[m + 6];
+        shiftY = marks[m + 7];
+    }
+
+    @Override
+    public void clearMarks(){
+        markCount = 0;
+    }
+
+    @Override
+    public DominoMap newEmpty(){
+        return new SparseDominoMap();
+    }
+
+    // Copies the hash table as it is, so the cost is proportional to the tiles played
+    @Override
+    public void copyFrom(DominoMap map){
+        if (!(map instanceof SparseDominoMap other))
+            throw new IllegalArgumentException("different map representation");
+        if (keys.length != other.keys.length) {
+            keys = other.keys.clone();
+            values = other.values.clone();
+        } else {
+            System.arraycopy(other.keys, 0, keys, 0, keys.length);
+            System.arraycopy(other.values, 0, values, 0, values.length);
+        }
+        size = other.size;
+        length = other.length;
+        width = other.width;
+        minX = other.minX;
+        minY = other.minY;
+        maxX = other.maxX;
+        maxY = other.maxY;
+        shiftX = other.shiftX;
+        shiftY = other.shiftY;
+        markCount = 0;
+    }
+
+    @Override
+    public int snapshotSize(){
+        return 9 * 4 + size * CELL_BYTES;
+    }
+
+    @Override
+    public void writeTo(ByteBuffer buffer){
+        buffer.putInt(length).putInt(width);
+        buffer.putInt(minX).putInt(minY).putInt(maxX).putInt(maxY);
+        buffer.putInt(shiftX).putInt(shiftY);
+        if (order.length < size)
+            order = new long[keys.length];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != FREE)
+                order[n++] = CellWriter.pack((int) (keys[i] >> 32) + shiftX, (int) keys[i] + shiftY,
+                        values[i]);
+        cellWriter.write(buffer, order, n, width);
+    }
+
+    @Override
+    public void readFrom(ByteBuffer buffer){
+        length = buffer.getInt();
+        width = buffer.getInt();
+        minX = buffer.getInt();
+        minY = buffer.getInt();
+        maxX = buffer.getInt();
+        maxY = buffer.getInt();
+        shiftX = buffer.getInt();
+        shiftY = buffer.getInt();
+        int count = buffer.getInt();
+        // the view never gets much wider than the chain of occupied cells
+        if (count < 0 || count > buffer.remaining() / CELL_BYTES ||
+                length <= 0 || width <= 0 || length > 2 * count + 8 || width > 2 * count + 8)
+            throw new IllegalArgumentException("bad map size " + length + "x" + width +
+                    " with " + count + " cells");
+
+        clear();
+        for (int i = 0; i < count; i++) {
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            byte v = buffer.get();
+            if (x < 0 || x >= length || y < 0 || y >= width || v < 0)
+                throw new IllegalArgumentException("bad cell (" + x + "," + y + ")");
+            put(key(x - shiftX, y - shiftY), v);
+        }
+        markCount = 0;
+    }
+
+    @Override
+    public void startMap(Die die){
+        clear();
+        length = 5;
+        width = 6;
+        shiftX = 0;
+        shiftY = 0;
+        markCount = 0;
+
+        minX = maxX = 2;
+        minY = 2;
+        maxY = 3;
+        put(key(2, 2), (byte) die.getHead());
+        put(key(2, 3), (byte) die.getTail());
+    }
+
+    @Override
+    public int[] extendMap(){
+        DominoEvents.MapGrowth event = new DominoEvents.MapGrowth();
+        event.begin();
+        int paddingX = Math.max(0, MARGIN - minX);
+        int paddingY = Math.max(0, MARGIN - minY);
+        int newLength = Math.max(length, maxX + MARGIN + 1) + paddingX;
+        int newWidth = Math.max(width, maxY + MARGIN + 1) + paddingY;
+
+        if ((newLength != length || newWidth != width) && event.shouldCommit()) {
+            event.columnsAdded = newLength - length;
+            event.rowsAdded = newWidth - width;
+            event.reallocated = false;
+            event.commit();
+        }
+
+        length = newLength;
+        width = newWidth;
+        minX += paddingX;
+        maxX += paddingX;
+        minY += paddingY;
+        maxY += paddingY;
+
+        shiftX += paddingX;
+        shiftY += paddingY;
+        padding[0] = paddingX;
+        padding[1] = paddingY;
+        return padding;
+    }
+
+    private static long key(int x, int y){
+        return (long) x << 32 | y & 0xFFFFFFFFL;
+    }
+
+    private static int slot(long key, int mask){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+
+    private static long[] newKeys(int capacity){
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        return keys;
+    }
+
+    private void put(long key, byte v){
+        if ((size + 1) * 2 > keys.length)
+            rehash(keys.length * 2);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != FREE && keys[i] != key)
+            i = (i + 1) & mask;
+        if (keys[i] == FREE) {
+            keys[i] = key;
+            size++;
+        }
+        values[i] = v;
+    }
+
+    // Backward shift deletion, so lookups never need tombstones
+    private void remove(long key){
+        int mask = keys.length - 1;
+        int hole = slot(key, mask);
+        while (keys[hole] != key) {
+            if (keys[hole] == FREE)
+                return;
+            hole = (hole + 1) & mask;
+        }
+        keys[hole] = FREE;
+        size--;
+
+        for (int i = (hole + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            int home = slot(keys[i], mask);
+            // the entry may fill the hole unless its home lies cyclically in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                keys[i] = FREE;
+                hole = i;
+            }
+        }
+    }
+
+    private void rehash(int capacity){
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = newKeys(capacity);
+        values = new byte[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == FREE)
+                continue;
+            int i = slot(oldKeys[j], mask);
+            while (keys[i] != FREE)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void clear(){
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private void checkBounds(int x, int y){
+        if (x < 0 || x >= length || y < 0 || y >= width)
+            throw new IndexOutOfBoundsException("cell (" + x + "," + y + ") is outside the map");
+    }
+
+}
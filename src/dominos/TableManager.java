@@ -0,0 +1,268 @@
+package dominos;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+import java.util.random.RandomGenerator;
+
+// Owns many tables and lets any thread act on them without locks. Every table has a mailbox
+// of commands and a home shard; only the shard's carrier thread ever touches the table's
+// Domino. A table with mail is put on its shard's run queue once, drained a batch at a time,
+// and publishes an immutable TableSnapshot after each command for readers.
+public class TableManager implements AutoCloseable {
+
+    private static final int BATCH = 64;
+
+    private final Shard[] shards;
+    private final ConcurrentHashMap<Long, Table> tables = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final SplittableRandom seeds = new SplittableRandom();
+
+    public TableManager(int shardCount) {
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+            shards[i].thread = new Thread(shards[i], "domino-table-shard-" + i);
+            shards[i].thread.setDaemon(true);
+            shards[i].thread.start();
+        }
+    }
+
+    public long createTable(int playersAmount) {
+        return createTable(playersAmount, GameConfig.DOUBLE_SIX);
+    }
+
+    public long createTable(int playersAmount, GameConfig config) {
+        RandomGenerator random;
+        synchronized (seeds) {
+            random = seeds.split();
+        }
+        return createTable(playersAmount, config, random);
+    }
+
+    // Deals on the calling thread; the table is handed to its shard through the map
+    public long createTable(int playersAmount, GameConfig config, RandomGenerator random) {
+        long id = nextId.getAndIncrement();
+        Table table = new Table(id, shards[(int) (id % shards.length)], new GameTable(playersAmount, config, random));
+        tables.put(id, table);
+        return id;
+    }
+
+    public TableSnapshot getSnapshot(long table) {
+        return table(table).snapshot;
+    }
+
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    // Snapshots published later no longer reach readers holding the id
+    public void removeTable(long table) {
+        tables.remove(table);
+    }
+
+    // The futures complete on the shard thread, exceptionally with IllegalStateException if the
+    // command was refused (see GameTable.describe)
+    public CompletableFuture<TableSnapshot> move(long table, int seat, int dieIndex, int headX, int headY, int orientation) {
+        return submit(table, rules -> rules.move(seat, dieIndex, headX, headY, orientation));
+    }
+
+    public CompletableFuture<TableSnapshot> draw(long table, int seat) {
+        return submit(table, rules -> rules.draw(seat));
+    }
+
+    public CompletableFuture<TableSnapshot> pass(long table, int seat) {
+        return submit(table, rules -> rules.pass(seat));
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+    }
+
+    private CompletableFuture<TableSnapshot> submit(long id, ToIntFunction<GameTable> action) {
+        Table table = table(id);
+        Command command = new Command(action);
+        table.mailbox.offer(command);
+        if (table.scheduled.compareAndSet(false, true))
+            table.shard.schedule(table);
+        return command.result;
+    }
+
+    private Table table(long id) {
+        Table table = tables.get(id);
+        if (table == null)
+            throw new IllegalArgumentException("no table " + id);
+        return table;
+    }
+
+    private static class Command {
+        final ToIntFunction<GameTable> action;
+        final CompletableFuture<TableSnapshot> result = new CompletableFuture<>();
+
+        Command(ToIntFunction<GameTable> action) {
+            this.action = action;
+        }
+    }
+
+    private static class Table {
+        final long id;
+        final Shard shard;
+        final GameTable rules;
+        final ConcurrentLinkedQueue<Command> mailbox = new ConcurrentLinkedQueue<>();
+        // set while the table is on the run queue or being drained
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // written by the shard thread only
+        long version;
+        volatile TableSnapshot snapshot;
+
+        Table(long id, Shard shard, GameTable rules) {
+            this.id = id;
+            this.shard = shard;
+            this.rules = rules;
+            this.snapshot = new TableSnapshot(id, 0, rules);
+        }
+
+        void drain() {
+            Command command;
+            for (int n = 0; n < BATCH && (command = mailbox.poll()) != null; n++) {
+                int result;
+                try {
+                    result = command.action.applyAsInt(rules);
+                } catch (RuntimeException e) {
+                    command.result.completeExceptionally(e);
+                    continue;
+                }
+                if (result != GameTable.OK) {
+                    command.result.completeExceptionally(new IllegalStateException(GameTable.describe(result)));
+                    continue;
+                }
+                TableSnapshot published = new TableSnapshot(id, ++version, rules);
+                snapshot = published;
+                command.result.complete(published);
+            }
+        }
+    }
+
+    private static class Shard implements Runnable {
+        final ConcurrentLinkedQueue<Table> runQueue = new ConcurrentLinkedQueue<>();
+        Thread thread;
+        volatile boolean sleeping;
+        volatile boolean running = true;
+
+        void schedule(Table table) {
+            runQueue.offer(table);
+            if (sleeping)
+                LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Table table = runQueue.poll();
+                if (table == null) {
+                    // producers check the flag after enqueueing, so one of the two sides sees the other
+                    sleeping = true;
+                    if (runQueue.isEmpty() && running)
+                        LockSupport.park(this);
+                    sleeping = false;
+                    continue;
+                }
+                table.drain();
+                table.scheduled.set(false);
+                // mail that arrived after the last poll but before the flag was cleared
+                if (!table.mailbox.isEmpty() && table.scheduled.compareAndSet(false, true))
+                    runQueue.offer(table);
+            }
+        }
+    }
+
+    // usage: TableManager [tables] [players] [seconds] [shards] [bot threads]
+    // Bot threads play every table from its snapshots while a spectator thread reads them all.
+    public static void main(String[] args) throws InterruptedException {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int playersAmount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int shardCount = args.length > 3 ? Integer.parseInt(args[3]) : cores;
+        int botThreads = args.length > 4 ? Integer.parseInt(args[4]) : cores;
+
+        TableManager manager = new TableManager(shardCount);
+        long[] ids = new long[tableCount];
+        for (int i = 0; i < tableCount; i++)
+            ids[i] = manager.createTable(playersAmount);
+
+        LongAdder commands = new LongAdder();
+        LongAdder refused = new LongAdder();
+        LongAdder games = new LongAdder();
+        LongAdder spectated = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < botThreads; t++) {
+            int first = t;
+            threads.add(Thread.ofPlatform().name("bot-" + t).start(() -> {
+                GreedyStrategy bot = new GreedyStrategy();
+                MoveBuffer moves = new MoveBuffer();
+                while (System.nanoTime() < deadline) {
+                    for (int i = first; i < ids.length; i += botThreads) {
+                        TableSnapshot snapshot = manager.getSnapshot(ids[i]);
+                        if (snapshot.isOver()) {
+                            manager.removeTable(ids[i]);
+                            ids[i] = manager.createTable(playersAmount);
+                            games.increment();
+                            continue;
+                        }
+                        Domino game = snapshot.restore();
+                        int seat = snapshot.getCurrentPlayer();
+                        CompletableFuture<TableSnapshot> result;
+                        if (game.generateMoves(seat, moves) > 0) {
+                            int m = bot.chooseMove(game, seat, moves);
+                            result = manager.move(ids[i], seat, moves.getDieIndex(m), moves.getHeadX(m),
+                                    moves.getHeadY(m), moves.getOrientation(m));
+                        } else if (game.getPoolSize() > 0) {
+                            result = manager.draw(ids[i], seat);
+                        } else {
+                            result = manager.pass(ids[i], seat);
+                        }
+                        try {
+                            result.join();
+                            commands.increment();
+                        } catch (RuntimeException e) {
+                            refused.increment();
+                        }
+                    }
+                }
+            }));
+        }
+        threads.add(Thread.ofPlatform().name("spectator").start(() -> {
+            while (System.nanoTime() < deadline) {
+                for (long id : ids) {
+                    try {
+                        if (manager.getSnapshot(id).getVersion() >= 0)
+                            spectated.increment();
+                    } catch (IllegalArgumentException replaced) {
+                        // the table finished and was removed meanwhile
+                    }
+                }
+            }
+        }));
+        for (Thread thread : threads)
+            thread.join();
+        manager.close();
+
+        System.out.printf("%d shards, %d bot threads, %d tables%n", shardCount, botThreads, tableCount);
+        System.out.printf("%.0f commands/s, %d games, %d refused, %.0f snapshot reads/s%n",
+                commands.sum() / (double) seconds, games.sum(), refused.sum(), spectated.sum() / (double) seconds);
+    }
+}
@@ -0,0 +1,62 @@
+package dominos;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+// Immutable picture of a TableManager table, published after every command. Any thread may
+// read it; restore() gives the reader a private Domino to inspect or search on.
+public final class TableSnapshot {
+
+    private final long table;
+    private final long version;
+    private final int playersAmount;
+    private final int currentPlayer;
+    private final boolean over;
+    private final int[] scores;
+    private final byte[] state;
+
+    TableSnapshot(long table, long version, GameTable rules) {
+        Domino game = rules.getGame();
+        this.table = table;
+        this.version = version;
+        this.playersAmount = game.getPlayersAmount();
+        this.currentPlayer = rules.getCurrentPlayer();
+        this.over = rules.isOver();
+        this.scores = new int[playersAmount];
+        for (int i = 0; i < playersAmount; i++)
+            scores[i] = game.countScore(i);
+        ByteBuffer buffer = ByteBuffer.allocate(game.snapshotSize());
+        game.writeSnapshot(buffer);
+        this.state = buffer.array();
+    }
+
+    public long getTable() {
+        return table;
+    }
+
+    // Number of commands applied to the table so far
+    public long getVersion() {
+        return version;
+    }
+
+    public int getPlayersAmount() {
+        return playersAmount;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    // The score the player would get if the game ended now
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public Domino restore() {
+        return Domino.restore(ByteBuffer.wrap(state), new SplittableRandom());
+    }
+}
@@ -0,0 +1,79 @@
+package dominos;
+
+// Canonical numbering of domino tiles: die (a, b) with a <= b has index b * (b + 1) / 2 + a.
+// The numbering does not depend on the set, so double-n is always the first count(n) indices,
+// up to double-eighteen. The dice are interned, so a tile index and its Die can be converted
+// both ways without allocating.
+public final class Tiles {
+
+    // largest supported set
+    public static final int MAX_PIP = 18;
+    public static final int COUNT = count(MAX_PIP);
+    // tile masks are longs, so they only cover the first 64 tiles (double-nine)
+    public static final int MASK_TILES = 64;
+
+    private static final Die[] DICE = new Die[COUNT];
+    // tiles that have the pip on either half, within the mask range
+    private static final long[] PIP_MASKS = new long[MAX_PIP + 1];
+
+    static {
+        for (int b = 0; b <= MAX_PIP; b++)
+            for (int a = 0; a <= b; a++) {
+                int index = index(a, b);
+                DICE[index] = new Die(a, b);
+                if (index < MASK_TILES) {
+                    PIP_MASKS[a] |= 1L << index;
+                    PIP_MASKS[b] |= 1L << index;
+                }
+            }
+    }
+
+    private Tiles() {
+    }
+
+    // Number of tiles in the double-maxPip set
+    public static int count(int maxPip) {
+        return (maxPip + 1) * (maxPip + 2) / 2;
+    }
+
+    public static int index(int a, int b) {
+        return a <= b ? b * (b + 1) / 2 + a : a * (a + 1) / 2 + b;
+    }
+
+    public static int index(Die die) {
+        return index(die.getHead(), die.getTail());
+    }
+
+    public static Die die(int index) {
+        return DICE[index];
+    }
+
+    public static Die die(int a, int b) {
+        return DICE[index(a, b)];
+    }
+
+    public static long pipMask(int pip) {
+        return PIP_MASKS[pip];
+    }
+
+    public static long mask(Iterable<Die> dice) {
+        long mask = 0;
+        for (Die die : dice) {
+            int index = index(die);
+            if (index >= MASK_TILES)
+                throw new IllegalArgumentException("tile " + index + " does not fit a mask");
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    // Sum of all pips on the tiles in the mask
+    public static int pipSum(long mask) {
+        int sum = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            Die die = DICE[Long.numberOfTrailingZeros(m)];
+            sum += die.sum();
+        }
+        return sum;
+    }
+}
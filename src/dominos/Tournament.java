@@ -0,0 +1,79 @@
+package dominos;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// Runs independent games across a fork-join pool. Game i always gets the same seed
+// derived from the master seed, so the totals do not depend on the thread count
+// and any single game can be replayed.
+public class Tournament {
+
+    private static final int GAMES_PER_TASK = 1024;
+
+    private final Supplier<GameEngine> engines;
+    private final int playersAmount;
+    private final long masterSeed;
+
+    public Tournament(Supplier<GameEngine> engines, int playersAmount, long masterSeed) {
+        this.engines = engines;
+        this.playersAmount = playersAmount;
+        this.masterSeed = masterSeed;
+    }
+
+    public TournamentResult run(long games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    public TournamentResult run(long games, ForkJoinPool pool) {
+        return pool.invoke(new GamesTask(0, games));
+    }
+
+    public GameResult replay(long game) {
+        return engines.get().playGame(seedFor(masterSeed, game));
+    }
+
+    public SplittableRandom newRandom(long game) {
+        return new SplittableRandom(seedFor(masterSeed, game));
+    }
+
+    // SplitMix64 finalizer over the game index
+    public static long seedFor(long masterSeed, long game) {
+        long z = masterSeed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private class GamesTask extends RecursiveTask<TournamentResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        GamesTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                GameEngine engine = engines.get();
+                TournamentResult result = new TournamentResult(playersAmount);
+                for (long g = from; g < to; g++) {
+                    long start = System.nanoTime();
+                    GameResult game = engine.playGame(seedFor(masterSeed, g));
+                    result.add(game, System.nanoTime() - start);
+                }
+                return result;
+            }
+            long middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            TournamentResult right = new GamesTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package dominos;
+
+// Totals over many games; merging is order independent so parallel runs add up to the same numbers.
+// Memory does not depend on the number of games: counters, per-seat score stats and
+// histograms, turn stats and a quantile sketch of the time per game.
+public class TournamentResult {
+
+    // big enough for double-eighteen games; larger values share the overflow bin
+    private static final int MAX_SCORE = 1000;
+    private static final int MAX_TURNS = 1000;
+    private static final double Z95 = 1.96;
+
+    private final int[] wins;
+    private long games;
+    private long ties;
+    private long fish;
+    private long turns;
+    private long starterWins;
+
+    private final RunningStats[] scoreStats;
+    private final Histogram[] scoreHistograms;
+    private final RunningStats turnStats = new RunningStats();
+    private final Histogram turnHistogram = new Histogram(MAX_TURNS);
+    private final QuantileSketch gameNanos = new QuantileSketch(0.01);
+
+    public TournamentResult(int playersAmount) {
+        this.wins = new int[playersAmount];
+        this.scoreStats = new RunningStats[playersAmount];
+        this.scoreHistograms = new Histogram[playersAmount];
+        for (int i = 0; i < playersAmount; i++) {
+            scoreStats[i] = new RunningStats();
+            scoreHistograms[i] = new Histogram(MAX_SCORE);
+        }
+    }
+
+    public void add(GameResult result) {
+        games++;
+        int winner = result.getWinner();
+        if (winner < 0)
+            ties++;
+        else {
+            wins[winner]++;
+            if (winner == result.getStarter())
+                starterWins++;
+        }
+        if (result.isFish())
+            fish++;
+        turns += result.getTurns();
+
+        for (int i = 0; i < wins.length; i++) {
+            scoreStats[i].add(result.getScore(i));
+            scoreHistograms[i].add(result.getScore(i));
+        }
+        turnStats.add(result.getTurns());
+        turnHistogram.add(result.getTurns());
+    }
+
+    // Also records how long the game took to play
+    public void add(GameResult result, long nanos) {
+        add(result);
+        gameNanos.add(nanos);
+    }
+
+    public TournamentResult merge(TournamentResult other) {
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+            scoreStats[i].merge(other.scoreStats[i]);
+            scoreHistograms[i].merge(other.scoreHistograms[i]);
+        }
+        games += other.games;
+        ties += other.ties;
+        fish += other.fish;
+        turns += other.turns;
+        starterWins += other.starterWins;
+        turnStats.merge(other.turnStats);
+        turnHistogram.merge(other.turnHistogram);
+        gameNanos.merge(other.gameNanos);
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public int getWins(int player) {
+        return wins[player];
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    public long getFish() {
+        return fish;
+    }
+
+    public long getTurns() {
+        return turns;
+    }
+
+    public long getStarterWins() {
+        return starterWins;
+    }
+
+    public RunningStats getScoreStats(int player) {
+        return scoreStats[player];
+    }
+
+    public Histogram getScoreHistogram(int player) {
+        return scoreHistograms[player];
+    }
+
+    public RunningStats getTurnStats() {
+        return turnStats;
+    }
+
+    public Histogram getTurnHistogram() {
+        return turnHistogram;
+    }
+
+    public QuantileSketch getGameNanos() {
+        return gameNanos;
+    }
+
+    // Wilson score interval of a proportion at 95% confidence, as {low, high}
+    public static double[] wilson(long successes, long trials) {
+        if (trials == 0)
+            return new double[]{0, 1};
+        double p = (double) successes / trials;
+        double z2 = Z95 * Z95;
+        double denominator = 1 + z2 / trials;
+        double centre = (p + z2 / (2.0 * trials)) / denominator;
+        double half = Z95 * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[]{Math.max(0, centre - half), Math.min(1, centre + half)};
+    }
+
+    private String rate(String label, long successes) {
+        double[] ci = wilson(successes, games);
+        return String.format("%s: %.2f%% (95%% CI %.2f-%.2f%%)", label,
+                100.0 * successes / games, 100 * ci[0], 100 * ci[1]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < wins.length; i++) {
+            RunningStats score = scoreStats[i];
+            Histogram histogram = scoreHistograms[i];
+            sb.append(rate("Player " + (i + 1) + " wins", wins[i]));
+            sb.append(String.format(", score %.2f +/- %.2f (median %d, p90 %d, p99 %d)%n",
+                    score.getMean(), score.getConfidence95(),
+                    histogram.quantile(0.5), histogram.quantile(0.9), histogram.quantile(0.99)));
+        }
+        sb.append(rate("Starter wins", starterWins)).append(System.lineSeparator());
+        sb.append(rate("Ties", ties)).append(", ").append(rate("fish", fish)).append(System.lineSeparator());
+        sb.append(String.format("Turns: %.2f +/- %.2f (median %d, p90 %d, p99 %d, max %.0f)",
+                turnStats.getMean(), turnStats.getConfidence95(), turnHistogram.quantile(0.5),
+                turnHistogram.quantile(0.9), turnHistogram.quantile(0.99), turnStats.getMax()));
+        if (gameNanos.getCount() > 0)
+            sb.append(String.format("%nTime per game: median %.1f us, p90 %.1f us, p99 %.1f us",
+                    gameNanos.quantile(0.5) / 1e3, gameNanos.quantile(0.9) / 1e3, gameNanos.quantile(0.99) / 1e3));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package dominos;
+
+import java.util.Arrays;
+
+// Fixed-size hash table of search results that many threads can share without locks.
+// Each slot is a pair of longs: the entry data and the key xor-ed with the data. A reader
+// only accepts a slot whose two halves still agree, so a slot torn by a concurrent writer
+// reads as a miss instead of a wrong result.
+// Slots come in buckets of two: the first keeps the deepest result, the second always
+// takes the newest one. Entries from an earlier search (see newSearch) are replaced first.
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    // returned by probe on a miss
+    public static final long MISS = 0;
+
+    // data layout: value 32 bits | depth 8 | bound 2 | age 8 | move 13 | valid 1
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+    private static final int MOVE_SHIFT = 50;
+    private static final long VALID = 1L << 63;
+    public static final int NO_MOVE = (1 << 13) - 1;
+
+    private final long[] slots;
+    private final int bucketMask;
+    private volatile int age;
+
+    // size is rounded down to a power of two number of buckets
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, (long) megabytes << 20) / 32);
+        if (buckets > 1 << 26)
+            buckets = 1 << 26;
+        slots = new long[(int) buckets * 4];
+        bucketMask = (int) buckets - 1;
+    }
+
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    // The entry data for the key, or MISS
+    public long probe(long key) {
+        int bucket = ((int) key & bucketMask) * 4;
+        for (int s = bucket; s < bucket + 4; s += 2) {
+            long data = slots[s + 1];
+            if ((slots[s] ^ data) == key && (data & VALID) != 0)
+                return data;
+        }
+        return MISS;
+    }
+
+    public void store(long key, int value, int depth, int bound, int move) {
+        long data = (value & 0xFFFFFFFFL)
+                | (long) Math.min(depth, 0xFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) age << AGE_SHIFT
+                | (long) (move & NO_MOVE) << MOVE_SHIFT
+                | VALID;
+
+        int bucket = ((int) key & bucketMask) * 4;
+        long deepData = slots[bucket + 1];
+        boolean sameKey = (slots[bucket] ^ deepData) == key;
+        int slot;
+        if (sameKey || (deepData & VALID) == 0 || age(deepData) != age || depth >= depth(deepData))
+            slot = bucket;
+        else
+            slot = bucket + 2;
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+
+    public static int value(long data) {
+        return (int) data;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    public static int move(long data) {
+        return (int) (data >>> MOVE_SHIFT) & NO_MOVE;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & 0xFF;
+    }
+}
@@ -0,0 +1,59 @@
+package dominos;
+
+// Random 64-bit keys for hashing the abstract game state: who holds each tile (a hand or the pool),
+// the values on the two open ends and the side to move. Played tiles contribute nothing,
+// and the ends are keyed as an unordered pair, so move orders that reach the same position
+// produce the same hash.
+public final class Zobrist {
+
+    public static final int MAX_PLAYERS = GameConfig.MAX_PLAYERS;
+    public static final int POOL = MAX_PLAYERS;
+
+    private static final long[][] TILES = new long[MAX_PLAYERS + 1][Tiles.COUNT];
+    private static final long[][] ENDS = new long[Tiles.MAX_PIP + 1][Tiles.MAX_PIP + 1];
+    private static final long[] SIDES = new long[MAX_PLAYERS];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (long[] owner : TILES)
+            for (int t = 0; t < owner.length; t++)
+                owner[t] = next(seed += 0x9E3779B97F4A7C15L);
+        for (int a = 0; a <= Tiles.MAX_PIP; a++)
+            for (int b = a; b <= Tiles.MAX_PIP; b++)
+                ENDS[a][b] = ENDS[b][a] = next(seed += 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < SIDES.length; i++)
+            SIDES[i] = next(seed += 0x9E3779B97F4A7C15L);
+    }
+
+    private Zobrist() {
+    }
+
+    // Key of a tile held by a player or, with POOL, lying in the pool
+    public static long tile(int owner, int tile) {
+        return TILES[owner][tile];
+    }
+
+    public static long ends(int end1, int end2) {
+        return ENDS[end1][end2];
+    }
+
+    public static long side(int player) {
+        return SIDES[player];
+    }
+
+    public static long hash(GameState state, int sideToMove) {
+        long hash = ends(state.getEnd1(), state.getEnd2()) ^ side(sideToMove);
+        for (long m = state.getPool(); m != 0; m &= m - 1)
+            hash ^= tile(POOL, Long.numberOfTrailingZeros(m));
+        for (int p = 0; p < state.getPlayersAmount(); p++)
+            for (long m = state.getHand(p); m != 0; m &= m - 1)
+                hash ^= tile(p, Long.numberOfTrailingZeros(m));
+        return hash;
+    }
+
+    private static long next(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,150 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// SparseDominoMap must be indistinguishable from DenseDominoMap through the DominoMap interface,
+// on random set/extendMap sequences as well as on whole games with undo.
+class DominoMapEquivalenceTest {
+
+    @Test
+    void randomSetAndExtendSequences() {
+        for (long seed = 0; seed < 500; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            DominoMap dense = new DenseDominoMap();
+            DominoMap sparse = new SparseDominoMap();
+            Die start = Tiles.die(random.nextInt(Tiles.count(6)));
+            dense.startMap(start);
+            sparse.startMap(start);
+            assertMapsMatch(dense, sparse, "seed " + seed + " start");
+
+            for (int step = 0; step < 200; step++) {
+                String where = "seed " + seed + ", step " + step;
+                if (random.nextInt(4) == 0) {
+                    assertArrayEquals(dense.extendMap(), sparse.extendMap(), where);
+                } else {
+                    int x = random.nextInt(dense.getLength());
+                    int y = random.nextInt(dense.getWidth());
+                    int v = random.nextInt(8) - 1;
+                    dense.set(v, x, y);
+                    sparse.set(v, x, y);
+                }
+                assertMapsMatch(dense, sparse, where);
+            }
+        }
+    }
+
+    @Test
+    void snapshotsCrossRepresentations() {
+        SplittableRandom random = new SplittableRandom(7);
+        DominoMap dense = new DenseDominoMap();
+        dense.startMap(Tiles.die(3, 5));
+        for (int step = 0; step < 300; step++) {
+            if (step % 10 == 0)
+                dense.extendMap();
+            dense.set(random.nextInt(7), random.nextInt(dense.getLength()), random.nextInt(dense.getWidth()));
+        }
+        DominoMap sparse = new SparseDominoMap();
+        sparse.readFrom(ByteBuffer.wrap(bytes(dense)));
+        assertMapsMatch(dense, sparse, "sparse read from dense");
+        DominoMap back = new DenseDominoMap();
+        back.readFrom(ByteBuffer.wrap(bytes(sparse)));
+        assertMapsMatch(dense, back, "dense read from sparse");
+    }
+
+    @Test
+    void gamesWithUndoMatch() {
+        MoveBuffer moves = new MoveBuffer();
+        MoveBuffer sparseMoves = new MoveBuffer();
+        for (GameConfig config : new GameConfig[]{GameConfig.DOUBLE_SIX, new GameConfig(12, 13)}) {
+            for (long seed = 0; seed < 200; seed++) {
+                Domino dense = deal(config, seed, new DenseDominoMap());
+                Domino sparse = deal(config, seed, new SparseDominoMap());
+                int player = dense.startMap();
+                sparse.startMap();
+
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int turn = 0; turn < 200 && !dense.handIsEmpty() && !dense.fishHappens(); turn++) {
+                    player = (player + 1) % 4;
+                    String where = config + " seed " + seed + ", turn " + turn;
+                    int count = dense.generateMoves(player, moves);
+                    assertEquals(count, sparse.generateMoves(player, sparseMoves), where);
+                    for (int i = 0; i < count; i++) {
+                        assertEquals(moves.getDieIndex(i), sparseMoves.getDieIndex(i), where);
+                        assertEquals(moves.getHeadX(i), sparseMoves.getHeadX(i), where);
+                        assertEquals(moves.getHeadY(i), sparseMoves.getHeadY(i), where);
+                        assertEquals(moves.getOrientation(i), sparseMoves.getOrientation(i), where);
+                        assertEquals(moves.getEdge(i), sparseMoves.getEdge(i), where);
+                    }
+                    if (count > 0) {
+                        int i = random.nextInt(count);
+                        dense.doMove(player, moves, i);
+                        sparse.doMove(player, moves, i);
+                        // now and then take the move back and play another
+                        if (random.nextInt(3) == 0) {
+                            dense.undoMove();
+                            sparse.undoMove();
+                            assertGamesMatch(dense, sparse, where + " undone");
+                            i = random.nextInt(count);
+                            dense.doMove(player, moves, i);
+                            sparse.doMove(player, moves, i);
+                        }
+                    } else if (dense.getPoolSize() > 0) {
+                        int draw = random.nextInt(dense.getPoolSize());
+                        dense.doPullDie(player, draw);
+                        sparse.doPullDie(player, draw);
+                    }
+                    assertGamesMatch(dense, sparse, where);
+                }
+            }
+        }
+    }
+
+    private static Domino deal(GameConfig config, long seed, DominoMap map) {
+        Domino game = new Domino(4, config, new SplittableRandom(seed), map);
+        game.generateDieSet();
+        game.makeHands();
+        return game;
+    }
+
+    private static void assertGamesMatch(Domino dense, Domino sparse, String where) {
+        assertArrayEquals(snapshot(dense), snapshot(sparse), where);
+        assertEquals(dense.getHash(0), sparse.getHash(0), where);
+    }
+
+    private static void assertMapsMatch(DominoMap dense, DominoMap sparse, String where) {
+        assertEquals(dense.getLength(), sparse.getLength(), where + ": length");
+        assertEquals(dense.getWidth(), sparse.getWidth(), where + ": width");
+        assertEquals(dense.getShiftX(), sparse.getShiftX(), where + ": shift x");
+        assertEquals(dense.getShiftY(), sparse.getShiftY(), where + ": shift y");
+        assertEquals(dense.getMinOccupiedX(), sparse.getMinOccupiedX(), where + ": min x");
+        assertEquals(dense.getMinOccupiedY(), sparse.getMinOccupiedY(), where + ": min y");
+        assertEquals(dense.getMaxOccupiedX(), sparse.getMaxOccupiedX(), where + ": max x");
+        assertEquals(dense.getMaxOccupiedY(), sparse.getMaxOccupiedY(), where + ": max y");
+        assertArrayEquals(bytes(dense), bytes(sparse), where + ": cells");
+        assertArrayEquals(bytes(dense), bytes(reread(dense, new SparseDominoMap())), where + ": read back sparse");
+        assertArrayEquals(bytes(sparse), bytes(reread(sparse, new DenseDominoMap())), where + ": read back dense");
+    }
+
+    private static DominoMap reread(DominoMap map, DominoMap into) {
+        into.readFrom(ByteBuffer.wrap(bytes(map)));
+        return into;
+    }
+
+    private static byte[] bytes(DominoMap map) {
+        ByteBuffer buffer = ByteBuffer.allocate(map.snapshotSize());
+        map.writeTo(buffer);
+        return buffer.array();
+    }
+
+    private static byte[] snapshot(Domino game) {
+        ByteBuffer buffer = ByteBuffer.allocate(game.snapshotSize());
+        game.writeSnapshot(buffer);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,109 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// doMove, doPullDie and undoMove on random seeded games: every exploration below a position
+// must come back to the same state and hash, and the whole game must unwind to the deal.
+class DominoUndoTest {
+
+    private static final int GAMES = 200;
+    private static final int MAX_DEPTH = 4;
+
+    private static final int PLACE = 0;
+    private static final int DRAW = 1;
+    private static final int PASS = 2;
+
+    @Test
+    void roundTripsDoubleSixDense() {
+        play(GameConfig.DOUBLE_SIX, 4, DenseDominoMap::new);
+    }
+
+    @Test
+    void roundTripsDoubleSixSparse() {
+        play(GameConfig.DOUBLE_SIX, 4, SparseDominoMap::new);
+    }
+
+    @Test
+    void roundTripsDoubleTwelve() {
+        play(new GameConfig(12, 13), 4, DenseDominoMap::new);
+        play(new GameConfig(12, 13), 4, SparseDominoMap::new);
+    }
+
+    private static void play(GameConfig config, int playersAmount, Supplier<DominoMap> maps) {
+        MoveBuffer moves = new MoveBuffer();
+        for (long seed = 0; seed < GAMES; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Domino game = new Domino(playersAmount, config, new SplittableRandom(seed), maps.get());
+            game.generateDieSet();
+            game.makeHands();
+            int player = game.startMap();
+            byte[] start = snapshot(game);
+            long startHash = game.getHash(0);
+
+            int turns = 0;
+            int passesInRow = 0;
+            // as in GameEngine, a round of passes ends the game too
+            while (!game.handIsEmpty() && !game.fishHappens() && passesInRow < playersAmount) {
+                player = (player + 1) % playersAmount;
+                byte[] before = snapshot(game);
+                long hash = game.getHash(player);
+                int depth = game.getUndoDepth();
+
+                explore(game, player, random, moves, 1 + random.nextInt(MAX_DEPTH));
+                String where = "seed " + seed + ", turn " + turns;
+                assertEquals(depth, game.getUndoDepth(), where);
+                assertArrayEquals(before, snapshot(game), where);
+                assertEquals(hash, game.getHash(player), where);
+
+                int action;
+                while ((action = randomAction(game, player, random, moves)) == DRAW)
+                    ;
+                passesInRow = action == PASS ? passesInRow + 1 : 0;
+                turns++;
+            }
+
+            while (game.getUndoDepth() > 0)
+                game.undoMove();
+            assertArrayEquals(start, snapshot(game), "seed " + seed + " unwound");
+            assertEquals(startHash, game.getHash(0), "seed " + seed + " unwound");
+        }
+    }
+
+    // Plays up to depth random actions from the player on, then takes them all back
+    private static void explore(Domino game, int player, SplittableRandom random, MoveBuffer moves, int depth) {
+        int done = 0;
+        for (int d = 0; d < depth && !game.handIsEmpty(); d++) {
+            if (randomAction(game, player, random, moves) != PASS)
+                done++;
+            player = (player + 1) % game.getPlayersAmount();
+        }
+        for (int d = 0; d < done; d++)
+            game.undoMove();
+    }
+
+    private static int randomAction(Domino game, int player, SplittableRandom random, MoveBuffer moves) {
+        int count = game.generateMoves(player, moves);
+        if (count > 0) {
+            game.doMove(player, moves, random.nextInt(count));
+            return PLACE;
+        }
+        if (game.getPoolSize() > 0) {
+            game.doPullDie(player, random.nextInt(game.getPoolSize()));
+            return DRAW;
+        }
+        return PASS;
+    }
+
+    private static byte[] snapshot(Domino game) {
+        ByteBuffer buffer = ByteBuffer.allocate(game.snapshotSize());
+        game.writeSnapshot(buffer);
+        return buffer.array();
+    }
+}
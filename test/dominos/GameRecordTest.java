@@ -0,0 +1,105 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Games recorded by GameRecorder read back by GameRecordReader, and records whose header no game
+// can have.
+class GameRecordTest {
+
+    private static final int GAMES = 50;
+    // the magic, the record length and the seed come before the player count
+    private static final int PLAYERS_OFFSET = 4 + 2 + 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasRecorded() throws IOException {
+        Path file = dir.resolve("games.dgr");
+        GameResult[] results = record(file, GameConfig.DOUBLE_SIX, 4);
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (int seed = 0; seed < GAMES; seed++) {
+                assertTrue(reader.next(), "record " + seed);
+                assertEquals(seed, reader.getSeed());
+                assertEquals(4, reader.getPlayersAmount());
+                assertEquals(6, reader.getMaxPip());
+
+                Domino game = new Domino(4, GameConfig.DOUBLE_SIX, new SplittableRandom(seed));
+                game.generateDieSet();
+                game.makeHands();
+                for (int p = 0; p < 4; p++)
+                    assertArrayEquals(tiles(game.getPlayerHand(p)), reader.getDeal(p), "seed " + seed);
+                assertEquals(game.startMap(), reader.getStarter(), "seed " + seed);
+                assertEquals(results[seed].getStarter(), reader.getStarter(), "seed " + seed);
+                DominoMap map = game.getMap();
+                assertEquals(Tiles.index(Tiles.die(map.get(2, 2), map.get(2, 3))), reader.getStartTile());
+
+                assertTrue(reader.getMoveCount() >= results[seed].getTurns(), "seed " + seed);
+                for (int p = 0; p < 4; p++)
+                    assertEquals(results[seed].getScore(p), reader.getScore(p), "seed " + seed);
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void refusesImpossibleHeaders() throws IOException {
+        Path file = dir.resolve("games.dgr");
+        record(file, GameConfig.DOUBLE_SIX, 2);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // no players, more than a record can seat, and a negative byte
+        for (int players : new int[]{0, GameConfig.MAX_PLAYERS + 1, 0x90})
+            assertRefused(bytes, PLAYERS_OFFSET, players);
+        for (int maxPip : new int[]{0, Tiles.MAX_PIP + 1, 0xFF})
+            assertRefused(bytes, PLAYERS_OFFSET + 1, maxPip);
+        // the first tile of the deal, and the starting player
+        assertRefused(bytes, PLAYERS_OFFSET + 3, GameConfig.DOUBLE_SIX.getTileCount());
+        assertRefused(bytes, PLAYERS_OFFSET + 2 + 2 * 8, 2);
+    }
+
+    private void assertRefused(byte[] bytes, int offset, int value) throws IOException {
+        byte[] corrupt = bytes.clone();
+        corrupt[offset] = (byte) value;
+        Path file = dir.resolve("corrupt.dgr");
+        Files.write(file, corrupt);
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertThrows(IOException.class, reader::next, "byte " + offset + " set to " + value);
+        }
+    }
+
+    private static GameResult[] record(Path file, GameConfig config, int playersAmount) throws IOException {
+        PlayerStrategy[] seats = new PlayerStrategy[playersAmount];
+        for (int p = 0; p < playersAmount; p++)
+            seats[p] = new GreedyStrategy();
+        GameEngine engine = new GameEngine(config, seats);
+        GameResult[] results = new GameResult[GAMES];
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            engine.setRecorder(new GameRecorder(writer));
+            for (int seed = 0; seed < GAMES; seed++)
+                results[seed] = engine.playGame(seed);
+        }
+        return results;
+    }
+
+    private static int[] tiles(ArrayList<Die> hand) {
+        int[] tiles = new int[hand.size()];
+        for (int i = 0; i < tiles.length; i++)
+            tiles[i] = Tiles.index(hand.get(i));
+        return tiles;
+    }
+}
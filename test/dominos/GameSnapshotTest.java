@@ -0,0 +1,99 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// GameSnapshot encode and decode, through memory and through a file, and snapshots whose seats
+// or current player do not fit the game they carry.
+class GameSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsGamesInProgress() throws IOException {
+        PlayerStrategy[] seats = {new GreedyStrategy(), new GreedyStrategy(), new GreedyStrategy()};
+        GameEngine engine = new GameEngine(GameConfig.DOUBLE_SIX, seats);
+        for (long seed = 0; seed < 100; seed++) {
+            Domino game = new Domino(3, GameConfig.DOUBLE_SIX, new SplittableRandom(seed));
+            game.generateDieSet();
+            game.makeHands();
+            int player = game.startMap();
+            for (int turn = 0; turn < seed % 12 && !game.handIsEmpty() && !game.fishHappens(); turn++) {
+                player = (player + 1) % 3;
+                engine.playTurn(game, player);
+            }
+            boolean[] bots = {seed % 2 == 0, true, seed % 3 == 0};
+            GameSnapshot snapshot = new GameSnapshot(game, player, bots);
+            byte[] encoded = bytes(snapshot.encode());
+
+            GameSnapshot decoded = GameSnapshot.decode(ByteBuffer.wrap(encoded));
+            String where = "seed " + seed;
+            assertEquals(player, decoded.getCurrentPlayer(), where);
+            assertArrayEquals(bots, decoded.getIsBot(), where);
+            assertEquals(game.getHash(player), decoded.getGame().getHash(player), where);
+            assertArrayEquals(encoded, bytes(decoded.encode()), where);
+
+            Path file = dir.resolve("game.dgs");
+            snapshot.save(file);
+            assertArrayEquals(encoded, bytes(GameSnapshot.load(file).encode()), where + " from a file");
+        }
+    }
+
+    @Test
+    void refusesSeatsThatDoNotFitTheGame() {
+        Domino game = startedGame(4);
+        assertRefused(new GameSnapshot(game, 0, new boolean[3]));
+        assertRefused(new GameSnapshot(game, 0, new boolean[5]));
+        assertRefused(new GameSnapshot(game, 0, new boolean[0]));
+    }
+
+    @Test
+    void refusesACurrentPlayerOutOfRange() {
+        Domino game = startedGame(2);
+        assertRefused(new GameSnapshot(game, 2, new boolean[2]));
+        assertRefused(new GameSnapshot(game, -1, new boolean[2]));
+    }
+
+    @Test
+    void refusesDataThatIsNotASnapshot() throws IOException {
+        byte[] encoded = bytes(new GameSnapshot(startedGame(2), 0, new boolean[2]).encode());
+        byte[] magic = encoded.clone();
+        magic[0] ^= 1;
+        assertThrows(IOException.class, () -> GameSnapshot.decode(ByteBuffer.wrap(magic)));
+
+        Path file = dir.resolve("truncated.dgs");
+        Files.write(file, Arrays.copyOf(encoded, encoded.length / 2));
+        assertThrows(IOException.class, () -> GameSnapshot.load(file));
+    }
+
+    private static void assertRefused(GameSnapshot snapshot) {
+        ByteBuffer encoded = snapshot.encode();
+        assertThrows(IOException.class, () -> GameSnapshot.decode(encoded));
+    }
+
+    private static Domino startedGame(int playersAmount) {
+        Domino game = new Domino(playersAmount, GameConfig.DOUBLE_SIX, new SplittableRandom(7));
+        game.generateDieSet();
+        game.makeHands();
+        game.startMap();
+        return game;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
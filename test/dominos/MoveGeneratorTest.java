@@ -0,0 +1,107 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// generateMoves against a brute-force scan of every cell, direction and die with
+// isPossibleToPlace, for every seat at every turn of random seeded games.
+class MoveGeneratorTest {
+
+    private static final int PLAYERS = 4;
+
+    @Test
+    void matchesBruteForceDoubleSix() {
+        play(GameConfig.DOUBLE_SIX, 300);
+    }
+
+    @Test
+    void matchesBruteForceDoubleTwelve() {
+        play(new GameConfig(12, 13), 100);
+    }
+
+    private static void play(GameConfig config, int games) {
+        MoveBuffer moves = new MoveBuffer();
+        for (long seed = 0; seed < games; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Domino game = new Domino(PLAYERS, config, new SplittableRandom(seed),
+                    seed % 2 == 0 ? new DenseDominoMap() : new SparseDominoMap());
+            game.generateDieSet();
+            game.makeHands();
+            int player = game.startMap();
+
+            int passesInRow = 0;
+            for (int turn = 0; !game.handIsEmpty() && !game.fishHappens() && passesInRow < PLAYERS; turn++) {
+                player = (player + 1) % PLAYERS;
+                for (int seat = 0; seat < PLAYERS; seat++) {
+                    String where = config + " seed " + seed + ", turn " + turn + ", seat " + seat;
+                    assertEquals(bruteForce(game, seat), generated(game, seat, moves), where);
+                }
+
+                while (game.generateMoves(player, moves) == 0 && game.getPoolSize() > 0)
+                    game.pullDie(player);
+                if (moves.size() > 0) {
+                    game.makeMove(player, moves, random.nextInt(moves.size()));
+                    passesInRow = 0;
+                } else {
+                    passesInRow++;
+                }
+            }
+        }
+    }
+
+    private static HashSet<String> generated(Domino game, int player, MoveBuffer moves) {
+        HashSet<String> keys = new HashSet<>();
+        ArrayList<Die> hand = game.getPlayerHand(player);
+        int count = game.generateMoves(player, moves);
+        for (int i = 0; i < count; i++) {
+            int headX = moves.getHeadX(i);
+            int headY = moves.getHeadY(i);
+            int tailX = headX + moves.getPaddingX(i);
+            int tailY = headY + moves.getPaddingY(i);
+            int edge = moves.getEdge(i);
+            assertTrue(game.isAttachedToEdge(headX, headY) == edge || game.isAttachedToEdge(tailX, tailY) == edge,
+                    "move " + i + " is not attached to its end " + edge);
+            assertTrue(keys.add(key(moves.getDieIndex(i), hand.get(moves.getDieIndex(i)), headX, headY, tailX, tailY)),
+                    "move " + i + " listed twice");
+        }
+        return keys;
+    }
+
+    // Every placement of every die in the hand, with the head and the tail anywhere on the map
+    private static HashSet<String> bruteForce(Domino game, int player) {
+        HashSet<String> keys = new HashSet<>();
+        ArrayList<Die> hand = game.getPlayerHand(player);
+        DominoMap map = game.getMap();
+        for (int i = 0; i < hand.size(); i++) {
+            Die die = hand.get(i);
+            for (int headY = 0; headY < map.getWidth(); headY++)
+                for (int headX = 0; headX < map.getLength(); headX++)
+                    for (int orientation = 0; orientation < 4; orientation++) {
+                        int tailX = headX + MoveBuffer.paddingX(orientation);
+                        int tailY = headY + MoveBuffer.paddingY(orientation);
+                        if (tailX < 0 || tailY < 0 || tailX >= map.getLength() || tailY >= map.getWidth())
+                            continue;
+                        if (game.isAttachedToEdge(headX, headY) + game.isAttachedToEdge(tailX, tailY) == 0)
+                            continue;
+                        int head = game.isPossibleToPlace(die.getHead(), headX, headY);
+                        int tail = game.isPossibleToPlace(die.getTail(), tailX, tailY);
+                        if (head >= 0 && tail >= 0 && head + tail >= 1)
+                            keys.add(key(i, die, headX, headY, tailX, tailY));
+                    }
+        }
+        return keys;
+    }
+
+    // The cells the die covers and their values; a double turned around is the same placement
+    private static String key(int dieIndex, Die die, int headX, int headY, int tailX, int tailY) {
+        String head = headX + "," + headY + "=" + die.getHead();
+        String tail = tailX + "," + tailY + "=" + die.getTail();
+        return dieIndex + ":" + (head.compareTo(tail) < 0 ? head + " " + tail : tail + " " + head);
+    }
+}
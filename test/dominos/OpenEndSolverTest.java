@@ -0,0 +1,153 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// OpenEndSolver against a plain minimax over the open-end model, and against the final
+// Domino.countScore of real games it plays out wherever the board allowed every model move.
+class OpenEndSolverTest {
+
+    private static final int TILES = Tiles.count(6);
+
+    @Test
+    void matchesBruteForceMinimax() {
+        try (OpenEndSolver solver = new OpenEndSolver(new GreedyStrategy(), 4, 1)) {
+            for (long seed = 0; seed < 2500; seed++) {
+                SplittableRandom random = new SplittableRandom(seed);
+                long[] hands = new long[2];
+                long used = 0;
+                for (int player = 0; player < 2; player++) {
+                    int size = 1 + random.nextInt(6);
+                    while (Long.bitCount(hands[player]) < size) {
+                        int tile = random.nextInt(TILES);
+                        if ((used & 1L << tile) == 0) {
+                            used |= 1L << tile;
+                            hands[player] |= 1L << tile;
+                        }
+                    }
+                }
+                GameState state = new GameState(hands, 0, random.nextInt(7), random.nextInt(7));
+                int side = random.nextInt(2);
+                assertEquals(bruteForce(state, side), solver.solve(state, side), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void valueIsTheFinalScoreWhereTheBoardAllowsTheModelMoves() {
+        PlayerStrategy[] seats = {new GreedyStrategy(), new GreedyStrategy()};
+        GameEngine engine = new GameEngine(GameConfig.DOUBLE_SIX, seats);
+        MoveBuffer moves = new MoveBuffer();
+        int compared = 0;
+        int limited = 0;
+        try (OpenEndSolver solver = new OpenEndSolver(new GreedyStrategy(), 16, 2)) {
+            for (long seed = 0; seed < 1000; seed++) {
+                Domino game = new Domino(2, GameConfig.DOUBLE_SIX, new SplittableRandom(seed));
+                game.generateDieSet();
+                game.makeHands();
+                int player = game.startMap();
+                while (game.getPoolSize() > 0 && !game.handIsEmpty() && !game.fishHappens()) {
+                    player = 1 - player;
+                    engine.playTurn(game, player);
+                }
+                if (game.handIsEmpty() || game.fishHappens())
+                    continue;
+
+                int first = -1;
+                int value = 0;
+                boolean modelled = true;
+                int passesInRow = 0;
+                while (!game.handIsEmpty() && !game.fishHappens() && passesInRow < 2) {
+                    player = 1 - player;
+                    int count = game.generateMoves(player, moves);
+                    modelled &= modelMoves(game, player).equals(realMoves(game, player, moves));
+                    if (count == 0) {
+                        passesInRow++;
+                        continue;
+                    }
+                    passesInRow = 0;
+                    int i = solver.chooseMove(game, player, moves);
+                    if (first < 0) {
+                        first = player;
+                        value = solver.getLastValue();
+                    }
+                    game.makeMove(player, moves, i);
+                }
+                if (first < 0)
+                    continue;
+                if (!modelled) {
+                    limited++;
+                    continue;
+                }
+                assertEquals(value, game.countScore(1 - first) - game.countScore(first), "seed " + seed);
+                compared++;
+            }
+        }
+        assertTrue(compared >= 100, compared + " games compared, " + limited + " limited by the board");
+    }
+
+    // Negamax without pruning or memo: the opponent's final score minus the side to move's
+    private static int bruteForce(GameState state, int side) {
+        int other = 1 - side;
+        boolean fish = state.isBlocked();
+        if (state.handSize(other) == 0 || fish)
+            return score(state, other, fish) - score(state, side, fish);
+        long playable = state.playable(side);
+        if (playable == 0)
+            return -bruteForce(state, other);
+        int best = Integer.MIN_VALUE;
+        for (long m = playable; m != 0; m &= m - 1) {
+            int tile = Long.numberOfTrailingZeros(m);
+            Die die = Tiles.die(tile);
+            for (int end = 1; end <= 2; end++) {
+                int value = end == 1 ? state.getEnd1() : state.getEnd2();
+                if (die.getHead() != value && die.getTail() != value)
+                    continue;
+                GameState child = new GameState(state);
+                child.play(side, tile, end);
+                best = Math.max(best, -bruteForce(child, other));
+            }
+        }
+        return best;
+    }
+
+    // As Domino.countScore
+    private static int score(GameState state, int player, boolean fish) {
+        long hand = state.getHand(player);
+        if (Long.bitCount(hand) == 1 && !fish)
+            return 25;
+        return Tiles.pipSum(hand);
+    }
+
+    // Tile and end of every move the open-end model allows; both ends count as one when alike
+    private static HashSet<Integer> modelMoves(Domino game, int player) {
+        GameState state = GameState.of(game);
+        HashSet<Integer> keys = new HashSet<>();
+        for (long m = state.playable(player); m != 0; m &= m - 1) {
+            int tile = Long.numberOfTrailingZeros(m);
+            Die die = Tiles.die(tile);
+            if (die.getHead() == state.getEnd1() || die.getTail() == state.getEnd1())
+                keys.add(tile * 2);
+            if (die.getHead() == state.getEnd2() || die.getTail() == state.getEnd2())
+                keys.add(tile * 2 + (state.getEnd1() == state.getEnd2() ? 0 : 1));
+        }
+        return keys;
+    }
+
+    private static HashSet<Integer> realMoves(Domino game, int player, MoveBuffer moves) {
+        GameState state = GameState.of(game);
+        ArrayList<Die> hand = game.getPlayerHand(player);
+        HashSet<Integer> keys = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int tile = Tiles.index(hand.get(moves.getDieIndex(i)));
+            keys.add(tile * 2 + (state.getEnd1() == state.getEnd2() ? 0 : moves.getEdge(i) - 1));
+        }
+        return keys;
+    }
+}
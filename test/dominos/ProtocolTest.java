@@ -0,0 +1,40 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Frame lengths at the limit of the u16 length prefix.
+class ProtocolTest {
+
+    @Test
+    void largestFrameKeepsItsLength() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + Protocol.MAX_FRAME);
+        int start = Protocol.beginFrame(buffer, Protocol.STATE);
+        buffer.position(buffer.position() + Protocol.MAX_FRAME - 1);
+        Protocol.endFrame(buffer, start);
+
+        buffer.flip();
+        assertEquals(Protocol.MAX_FRAME, Protocol.completeFrame(buffer));
+        assertEquals(Protocol.STATE, buffer.get(2));
+    }
+
+    @Test
+    void oversizedFrameIsRefusedAndDropped() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 2 * Protocol.MAX_FRAME);
+        Protocol.command(buffer, Protocol.DRAW);
+        int start = Protocol.beginFrame(buffer, Protocol.STATE);
+        buffer.position(buffer.position() + Protocol.MAX_FRAME);
+
+        assertThrows(IllegalStateException.class, () -> Protocol.endFrame(buffer, start));
+        // only the frame before it is left, so the stream stays in step
+        assertEquals(start, buffer.position());
+        buffer.flip();
+        assertEquals(1, Protocol.completeFrame(buffer));
+        assertEquals(Protocol.DRAW, buffer.get(2));
+        assertEquals(3, buffer.remaining());
+    }
+}
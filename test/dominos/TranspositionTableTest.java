@@ -0,0 +1,132 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Probe and store of TranspositionTable: the packed fields, keys that share a bucket, the
+// replacement order within a bucket and entries written by several threads at once.
+class TranspositionTableTest {
+
+    // a 1 MB table has 2^15 buckets, so keys that differ only above bit 40 share one
+    private static final long SAME_BUCKET = 1L << 40;
+
+    @Test
+    void storedFieldsComeBack() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(12345, -77, 9, TranspositionTable.UPPER, 4321);
+        table.store(54321, Integer.MIN_VALUE, 300, TranspositionTable.EXACT, TranspositionTable.NO_MOVE);
+
+        long data = table.probe(12345);
+        assertEquals(-77, TranspositionTable.value(data));
+        assertEquals(9, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+        assertEquals(4321, TranspositionTable.move(data));
+
+        data = table.probe(54321);
+        assertEquals(Integer.MIN_VALUE, TranspositionTable.value(data));
+        assertEquals(255, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(data));
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(12345));
+    }
+
+    @Test
+    void missesKeysThatWereNeverStored() {
+        TranspositionTable table = new TranspositionTable(1);
+        // an empty slot holds two zeros, which agree for key 0 but are not valid
+        assertEquals(TranspositionTable.MISS, table.probe(0));
+
+        long key = 0x1234_5678L;
+        table.store(key, 1, 3, TranspositionTable.EXACT, 0);
+        table.store(key + SAME_BUCKET, 2, 1, TranspositionTable.EXACT, 0);
+        // the bucket is full, but neither slot verifies against a third key
+        assertEquals(TranspositionTable.MISS, table.probe(key + 2 * SAME_BUCKET));
+        assertEquals(TranspositionTable.MISS, table.probe(key ^ 1));
+        assertEquals(1, TranspositionTable.value(table.probe(key)));
+        assertEquals(2, TranspositionTable.value(table.probe(key + SAME_BUCKET)));
+    }
+
+    @Test
+    void bucketKeepsTheDeepestAndTheNewest() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 0x0BAD_CAFEL;
+        long first = deep + SAME_BUCKET;
+        long second = deep + 2 * SAME_BUCKET;
+
+        table.store(deep, 1, 8, TranspositionTable.EXACT, 0);
+        table.store(first, 2, 3, TranspositionTable.EXACT, 0);
+        table.store(second, 3, 5, TranspositionTable.EXACT, 0);
+        // the shallower entries share the always-replace slot, the newest wins it
+        assertEquals(1, TranspositionTable.value(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(first));
+        assertEquals(3, TranspositionTable.value(table.probe(second)));
+
+        // the same key is updated in place even when the new result is shallower
+        table.store(deep, 4, 2, TranspositionTable.LOWER, 0);
+        assertEquals(4, TranspositionTable.value(table.probe(deep)));
+        assertEquals(2, TranspositionTable.depth(table.probe(deep)));
+
+        // a result at least as deep takes the first slot
+        table.store(first, 5, 2, TranspositionTable.EXACT, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        assertEquals(5, TranspositionTable.value(table.probe(first)));
+        assertEquals(3, TranspositionTable.value(table.probe(second)));
+    }
+
+    @Test
+    void entriesOfAnEarlierSearchAreReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        long old = 0x7777L;
+        long fresh = old + SAME_BUCKET;
+
+        table.store(old, 1, 20, TranspositionTable.EXACT, 0);
+        table.newSearch();
+        table.store(fresh, 2, 1, TranspositionTable.EXACT, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(old));
+        assertEquals(2, TranspositionTable.value(table.probe(fresh)));
+    }
+
+    // Writers race on a small table; a hit must still be the value stored for that very key
+    @Test
+    void concurrentWritersNeverProduceAWrongHit() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicInteger wrong = new AtomicInteger();
+        AtomicInteger hits = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000_000; i++) {
+                    // few distinct keys per bucket, so stores keep overwriting each other
+                    long key = random.nextLong() & (0xFL << 40 | 0x3FF);
+                    if (random.nextBoolean()) {
+                        table.store(key, expected(key), (int) key & 0x3F, TranspositionTable.EXACT, 0);
+                        continue;
+                    }
+                    long data = table.probe(key);
+                    if (data == TranspositionTable.MISS)
+                        continue;
+                    hits.incrementAndGet();
+                    if (TranspositionTable.value(data) != expected(key) ||
+                            TranspositionTable.depth(data) != ((int) key & 0x3F))
+                        wrong.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertNotEquals(0, hits.get());
+        assertEquals(0, wrong.get());
+    }
+
+    private static int expected(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> 32);
+    }
+}
@@ -0,0 +1,70 @@
+package dominos;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The hash Domino keeps up through doMove, doPullDie and undoMove against the hash of the same
+// position computed from scratch: by Zobrist.hash over GameState where the set fits a tile mask,
+// and by a game restored from a snapshot, which rebuilds its hash from the tiles, for any set.
+class ZobristTest {
+
+    private static final int GAMES = 200;
+
+    @Test
+    void incrementalHashMatchesDoubleSix() {
+        play(GameConfig.DOUBLE_SIX, 4);
+        play(GameConfig.DOUBLE_SIX, 2);
+    }
+
+    @Test
+    void incrementalHashMatchesDoubleTwelve() {
+        play(new GameConfig(12, 13), 4);
+    }
+
+    private static void play(GameConfig config, int playersAmount) {
+        MoveBuffer moves = new MoveBuffer();
+        for (long seed = 0; seed < GAMES; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Domino game = new Domino(playersAmount, config, new SplittableRandom(seed));
+            game.generateDieSet();
+            game.makeHands();
+            int player = game.startMap();
+            int turns = 0;
+            int passesInRow = 0;
+            while (!game.handIsEmpty() && !game.fishHappens() && passesInRow < playersAmount) {
+                player = (player + 1) % playersAmount;
+                String where = "seed " + seed + ", turn " + turns++;
+                int count = game.generateMoves(player, moves);
+                if (count > 0) {
+                    // a move taken back first, so the hash has been through undoMove too
+                    game.doMove(player, moves, random.nextInt(count));
+                    assertFromScratch(game, player, where + " after a move");
+                    game.undoMove();
+                    game.generateMoves(player, moves);
+                    game.doMove(player, moves, random.nextInt(count));
+                    passesInRow = 0;
+                } else if (game.getPoolSize() > 0) {
+                    game.doPullDie(player, random.nextInt(game.getPoolSize()));
+                    player = (player + playersAmount - 1) % playersAmount;
+                } else {
+                    passesInRow++;
+                }
+                assertFromScratch(game, (player + 1) % playersAmount, where);
+            }
+        }
+    }
+
+    private static void assertFromScratch(Domino game, int sideToMove, String where) {
+        if (game.getConfig().fitsMask())
+            assertEquals(Zobrist.hash(GameState.of(game), sideToMove), game.getHash(sideToMove), where);
+
+        ByteBuffer buffer = ByteBuffer.allocate(game.snapshotSize());
+        game.writeSnapshot(buffer);
+        Domino restored = Domino.restore(buffer.flip(), new SplittableRandom());
+        assertEquals(restored.getHash(sideToMove), game.getHash(sideToMove), where + ", restored");
+    }
+}